@@ -4,6 +4,10 @@ import com.example.sku.Sku;
 import com.example.sku.SkuRequest;
 import com.example.sku.SkuResponse;
 import com.example.sku.SkuServiceGrpc;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Timestamp;
 import com.google.type.Money;
 import io.grpc.ManagedChannel;
@@ -14,12 +18,17 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Client {
 
@@ -30,7 +39,7 @@ public class Client {
             double amount,
             String countryCode,
             String availabilityType,
-            double basePrice,
+            long basePriceNanos,
             String currencyCode,
             java.sql.Timestamp alterado
     ) {}
@@ -46,22 +55,47 @@ public class Client {
                      , a.disponivel amount
                      , 'BR' contry_code
                      , 'READY_TO_SHIP' availability_type
-                     , b.preco_prazo base_price
+                     , cast(b.preco_prazo * 1000000000 as signed) base_price_nanos
                      , 'BRL' currency_code
                      , a.alterado
                   from produto_estoque a join produtos_dbf b on a.PRODUTO_CODIGO=b.CODIGO
                  where b.FINALIDADE_CODIGO=1
                    and b.PRECO_PRAZO>0
                 """;
+        // Incremental: só o que mudou depois da marca d'água; sku_id desempata registros com o mesmo alterado.
+        // A ordenação é o que permite avançar a marca; um índice em produto_estoque (alterado, codigo) evita o sort.
+        String incrementalFilter = """
+                   and (a.alterado > ? or (a.alterado = ? and a.codigo > ?))
+                """;
+        String order = """
+                 order by a.alterado, a.codigo
+                """;
+
+        // client.sync=full ignora a marca d'água e reenvia tudo (e grava uma marca nova no final)
+        Path checkpointFile = Path.of(System.getProperty("client.checkpoint-file", "sync-checkpoint.properties"));
+        boolean fullSync = "full".equalsIgnoreCase(System.getProperty("client.sync", "incremental"));
+        Optional<SyncCheckpoint> checkpoint = fullSync ? Optional.empty() : SyncCheckpoint.load(checkpointFile);
+        if (checkpoint.isPresent()) {
+            query = query + incrementalFilter;
+            IO.println("Sincronização incremental a partir de " + checkpoint.get());
+        } else {
+            IO.println("Sincronização completa");
+        }
+        query = query + order;
 
         String target = "127.0.0.1:9090";
-        ManagedChannel channel = ManagedChannelBuilder.forTarget(target)
+        // client.compression=identity|gzip|zstd (padrão identity, que os servidores em Rust aceitam); os lotes
+        // repetem país, moeda e disponibilidade e comprimem bem contra os servidores Java
+        Compression compression = Compression.fromSystemProperty("client.compression");
+        ManagedChannel channel = compression.configure(ManagedChannelBuilder.forTarget(target))
                 .usePlaintext()
                 .build();
-        SkuServiceGrpc.SkuServiceBlockingStub stub = SkuServiceGrpc.newBlockingStub(channel);
+        SkuServiceGrpc.SkuServiceFutureStub stub = compression.apply(SkuServiceGrpc.newFutureStub(channel));
 
         List<ProdutoEstoque> batch = new ArrayList<>();
-        int batchSize = 1000;
+        int batchSize = Integer.getInteger("client.batch-size", 1000);
+        // Lotes enviados e ainda sem resposta; com a janela cheia a leitura do MySQL espera
+        int maxInFlight = Integer.getInteger("client.max-in-flight", 4);
 
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
@@ -70,9 +104,9 @@ public class Client {
             return;
         }
 
-        ExecutorService executor = Executors.newSingleThreadExecutor();
+        BatchSender sender = new BatchSender(stub, maxInFlight, checkpointFile);
 
-        LocalDateTime beforProcess = LocalDateTime.now();
+        long beforeProcess = System.nanoTime();
         try (Connection con = DriverManager.getConnection(url, user, password)) {
             
             // Otimizações para leitura massiva sem bloqueio de escrita (MVCC Snapshot)
@@ -81,6 +115,12 @@ public class Client {
 
             try (PreparedStatement stmt = con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
                 stmt.setFetchSize(Integer.MIN_VALUE); // Habilita streaming no MySQL Connector/J
+                if (checkpoint.isPresent()) {
+                    java.sql.Timestamp watermark = java.sql.Timestamp.valueOf(checkpoint.get().alterado());
+                    stmt.setTimestamp(1, watermark);
+                    stmt.setTimestamp(2, watermark);
+                    stmt.setLong(3, checkpoint.get().skuId());
+                }
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
@@ -91,28 +131,21 @@ public class Client {
                                 rs.getDouble("amount"),
                                 rs.getString("contry_code"),
                                 rs.getString("availability_type"),
-                                rs.getDouble("base_price"),
+                                rs.getLong("base_price_nanos"),
                                 rs.getString("currency_code"),
                                 rs.getTimestamp("alterado")
                         );
                         batch.add(record);
 
                         if (batch.size() >= batchSize) {
-                            List<ProdutoEstoque> batchToSend = batch;
-                            executor.submit(() -> {
-                                LocalDateTime befor = LocalDateTime.now();
-                                sendBatch(stub, batchToSend);
-                                LocalDateTime after = LocalDateTime.now();
-                                IO.println("Time for batch to be sent: " + java.time.Duration.between(befor, after).toMillis() + " ms");
-                            });
+                            sender.send(batch);
                             batch = new ArrayList<>();
                         }
                     }
 
                     // Enviar o restante
                     if (!batch.isEmpty()) {
-                        List<ProdutoEstoque> batchToSend = batch;
-                        executor.submit(() -> sendBatch(stub, batchToSend));
+                        sender.send(batch);
                     }
                 }
             }
@@ -121,20 +154,136 @@ public class Client {
 
         } catch (SQLException e) {
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IO.println("Leitura interrompida.");
         } finally {
-            executor.shutdown();
             try {
-                executor.awaitTermination(1, TimeUnit.HOURS);
+                sender.awaitCompletion();
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                Thread.currentThread().interrupt();
             }
             channel.shutdownNow();
         }
-        LocalDateTime afterProcess = LocalDateTime.now();
-        IO.println("Total time for the process: " + java.time.Duration.between(beforProcess, afterProcess).toMillis() + " ms");
+        IO.println("Total time for the process: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beforeProcess) + " ms");
+        sender.printSummary();
+        IO.println(compression.summary());
+    }
+
+    /**
+     * Envia os lotes pelo stub assíncrono com no máximo {@code maxInFlight} lotes pendentes.
+     * Memória fica limitada a {@code maxInFlight} lotes mais o que está sendo lido.
+     * As respostas chegam fora de ordem; a marca d'água só avança até o último lote de uma sequência
+     * contínua de lotes confirmados, e para de avançar no primeiro lote com falha.
+     */
+    private static final class BatchSender {
+
+        private final SkuServiceGrpc.SkuServiceFutureStub stub;
+        private final int maxInFlight;
+        private final Semaphore window;
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicLong succeededSkus = new AtomicLong();
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        private final Path checkpointFile;
+        // Lotes confirmados que ainda esperam um lote anterior; null marca lote com falha
+        private final Map<Integer, Optional<SyncCheckpoint>> acknowledged = new HashMap<>();
+        private int nextToCheckpoint = 1;
+        private boolean checkpointBlocked;
+
+        BatchSender(SkuServiceGrpc.SkuServiceFutureStub stub, int maxInFlight, Path checkpointFile) {
+            this.stub = stub;
+            this.maxInFlight = maxInFlight;
+            this.window = new Semaphore(maxInFlight);
+            this.checkpointFile = checkpointFile;
+        }
+
+        void send(List<ProdutoEstoque> lista) throws InterruptedException {
+            window.acquire();
+            int batchNumber = batches.incrementAndGet();
+            Optional<SyncCheckpoint> batchCheckpoint = lastCheckpoint(lista);
+            String range = "#" + batchNumber + " (sku " + lista.getFirst().skuId() + ".." + lista.getLast().skuId() + ")";
+            long sentAt = System.nanoTime();
+            ListenableFuture<SkuResponse> future;
+            try {
+                future = stub.importSkus(buildRequest(lista));
+            } catch (RuntimeException e) {
+                window.release();
+                throw e;
+            }
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(SkuResponse response) {
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+                    if (response.getSuccess()) {
+                        succeeded.incrementAndGet();
+                        succeededSkus.addAndGet(lista.size());
+                        IO.println("Lote " + range + " enviado em " + millis + " ms: " + response.getMessage());
+                        acknowledge(batchNumber, batchCheckpoint);
+                    } else {
+                        failed(range, response.getMessage());
+                        acknowledge(batchNumber, null);
+                    }
+                    window.release();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    failed(range, t.toString());
+                    acknowledge(batchNumber, null);
+                    window.release();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        // Registros sem alterado vêm primeiro na ordenação e não entram na marca d'água
+        private static Optional<SyncCheckpoint> lastCheckpoint(List<ProdutoEstoque> lista) {
+            ProdutoEstoque last = lista.getLast();
+            return last.alterado() != null
+                    ? Optional.of(new SyncCheckpoint(last.alterado().toLocalDateTime(), last.skuId()))
+                    : Optional.empty();
+        }
+
+        private synchronized void acknowledge(int batchNumber, Optional<SyncCheckpoint> batchCheckpoint) {
+            acknowledged.put(batchNumber, batchCheckpoint);
+            SyncCheckpoint advanced = null;
+            while (!checkpointBlocked && acknowledged.containsKey(nextToCheckpoint)) {
+                Optional<SyncCheckpoint> next = acknowledged.remove(nextToCheckpoint);
+                if (next == null) {
+                    checkpointBlocked = true;
+                    IO.println("Marca d'água parada antes do lote #" + nextToCheckpoint);
+                    break;
+                }
+                if (next.isPresent()) {
+                    advanced = next.get();
+                }
+                nextToCheckpoint++;
+            }
+            if (advanced != null) {
+                advanced.save(checkpointFile);
+            }
+        }
+
+        private void failed(String range, String reason) {
+            failures.add(range + ": " + reason);
+            IO.println("Falha no lote " + range + ": " + reason);
+        }
+
+        void awaitCompletion() throws InterruptedException {
+            window.acquire(maxInFlight);
+            window.release(maxInFlight);
+        }
+
+        void printSummary() {
+            IO.println("Lotes: " + batches.get() + " enviados, " + succeeded.get() + " com sucesso ("
+                    + succeededSkus.get() + " skus), " + failures.size() + " com falha.");
+            synchronized (failures) {
+                failures.forEach(failure -> IO.println("  " + failure));
+            }
+        }
     }
 
-    private static void sendBatch(SkuServiceGrpc.SkuServiceBlockingStub stub, List<ProdutoEstoque> lista) {
+    private static SkuRequest buildRequest(List<ProdutoEstoque> lista) {
         SkuRequest.Builder requestBuilder = SkuRequest.newBuilder();
 
         for (ProdutoEstoque p : lista) {
@@ -148,8 +297,8 @@ public class Client {
 
             Money money = Money.newBuilder()
                     .setCurrencyCode(p.currencyCode())
-                    .setUnits((long) p.basePrice())
-                    .setNanos((int) ((p.basePrice() - (long) p.basePrice()) * 1_000_000_000))
+                    .setUnits(p.basePriceNanos() / 1_000_000_000L)
+                    .setNanos((int) (p.basePriceNanos() % 1_000_000_000L))
                     .build();
             skuBuilder.setBasePrice(money);
 
@@ -164,7 +313,6 @@ public class Client {
             requestBuilder.addSkus(skuBuilder.build());
         }
 
-        SkuResponse response = stub.importSkus(requestBuilder.build());
-        IO.println("Lote enviado. Resposta: " + response.getMessage());
+        return requestBuilder.build();
     }
 }
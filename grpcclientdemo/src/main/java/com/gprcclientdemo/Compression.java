@@ -0,0 +1,207 @@
+package com.gprcclientdemo;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.AbstractStub;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compressão das mensagens do cliente com gzip ou zstd. O encoding escolhido (gzip, zstd ou identity) vale para
+ * as requisições de import; as respostas chegam no encoding que o servidor escolher entre os anunciados.
+ * Os bytes antes e depois da compressão e o tempo gasto nela são somados para o resumo no fim da execução.
+ * O padrão é identity: os servidores em Rust (tonic sem as features de compressão) recusam requisições
+ * comprimidas com UNIMPLEMENTED. gzip e zstd são opcionais, para os servidores Java.
+ */
+final class Compression {
+
+    static final String IDENTITY = "identity";
+
+    private final String encoding;
+    private final Totals compress = new Totals();
+    private final Totals decompress = new Totals();
+    private final CompressorRegistry compressors = CompressorRegistry.newEmptyInstance();
+    private final DecompressorRegistry decompressors;
+
+    Compression(String encoding, int zstdLevel) {
+        Codec gzip = new CountingCodec(new Codec.Gzip());
+        Codec zstd = new CountingCodec(new ZstdCodec(zstdLevel));
+        compressors.register(gzip);
+        compressors.register(zstd);
+        decompressors = DecompressorRegistry.emptyInstance()
+                .with(Codec.Identity.NONE, false)
+                .with(gzip, true)
+                .with(zstd, true);
+        if (!encoding.equals(IDENTITY) && compressors.lookupCompressor(encoding) == null) {
+            throw new IllegalArgumentException("Unsupported compression '" + encoding + "', use gzip, zstd or identity");
+        }
+        this.encoding = encoding;
+    }
+
+    static Compression fromSystemProperty(String property) {
+        return new Compression(System.getProperty(property, IDENTITY), Integer.getInteger(property + "-level", 3));
+    }
+
+    ManagedChannelBuilder<?> configure(ManagedChannelBuilder<?> builder) {
+        return builder.compressorRegistry(compressors).decompressorRegistry(decompressors);
+    }
+
+    <S extends AbstractStub<S>> S apply(S stub) {
+        return encoding.equals(IDENTITY) ? stub : stub.withCompression(encoding);
+    }
+
+    String summary() {
+        return "Compressão " + encoding + ": enviados " + compress.line() + "; recebidos " + decompress.line();
+    }
+
+    private static final class Totals {
+
+        final LongAdder uncompressed = new LongAdder();
+        final LongAdder compressed = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        String line() {
+            long raw = uncompressed.sum();
+            double ratio = raw == 0 ? 1 : compressed.sum() / (double) raw;
+            return String.format("%d -> %d bytes (razão %.3f, %d ms de CPU)",
+                    raw, compressed.sum(), ratio, TimeUnit.NANOSECONDS.toMillis(nanos.sum()));
+        }
+    }
+
+    /** Codec zstd do gRPC (o grpc-java só traz gzip), com buffers reaproveitados entre mensagens. */
+    private static final class ZstdCodec implements Codec {
+
+        private final int level;
+
+        ZstdCodec(int level) {
+            this.level = level;
+        }
+
+        @Override
+        public String getMessageEncoding() {
+            return "zstd";
+        }
+
+        @Override
+        public OutputStream compress(OutputStream os) throws IOException {
+            return new ZstdOutputStream(os, RecyclingBufferPool.INSTANCE).setLevel(level);
+        }
+
+        @Override
+        public InputStream decompress(InputStream is) throws IOException {
+            return new ZstdInputStream(is, RecyclingBufferPool.INSTANCE);
+        }
+    }
+
+    private final class CountingCodec implements Codec {
+
+        private final Codec delegate;
+
+        CountingCodec(Codec delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getMessageEncoding() {
+            return delegate.getMessageEncoding();
+        }
+
+        @Override
+        public OutputStream compress(OutputStream os) throws IOException {
+            OutputStream compressing = delegate.compress(new FilterOutputStream(os) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    compress.compressed.add(len);
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    compress.compressed.increment();
+                }
+            });
+            return new FilterOutputStream(compressing) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    long start = System.nanoTime();
+                    out.write(b, off, len);
+                    compress.nanos.add(System.nanoTime() - start);
+                    compress.uncompressed.add(len);
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    long start = System.nanoTime();
+                    out.write(b);
+                    compress.nanos.add(System.nanoTime() - start);
+                    compress.uncompressed.increment();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    long start = System.nanoTime();
+                    super.close();
+                    compress.nanos.add(System.nanoTime() - start);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream is) throws IOException {
+            InputStream decompressing = delegate.decompress(new FilterInputStream(is) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = in.read(b, off, len);
+                    if (read > 0) {
+                        decompress.compressed.add(read);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read() throws IOException {
+                    int read = in.read();
+                    if (read >= 0) {
+                        decompress.compressed.increment();
+                    }
+                    return read;
+                }
+            });
+            return new FilterInputStream(decompressing) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    long start = System.nanoTime();
+                    int read = in.read(b, off, len);
+                    decompress.nanos.add(System.nanoTime() - start);
+                    if (read > 0) {
+                        decompress.uncompressed.add(read);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read() throws IOException {
+                    long start = System.nanoTime();
+                    int read = in.read();
+                    decompress.nanos.add(System.nanoTime() - start);
+                    if (read >= 0) {
+                        decompress.uncompressed.increment();
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+}
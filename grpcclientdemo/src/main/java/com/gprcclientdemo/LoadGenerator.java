@@ -0,0 +1,357 @@
+package com.gprcclientdemo;
+
+import com.example.sku.Sku;
+import com.example.sku.SkuByItemRequest;
+import com.example.sku.SkuByWarehouseRequest;
+import com.example.sku.SkuGetByIdRequest;
+import com.example.sku.SkuRequest;
+import com.example.sku.SkuServiceGrpc;
+import com.google.protobuf.Timestamp;
+import com.google.type.Money;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga para comparar os servidores (MySQL, Postgres, Mongo e Rust) sob a mesma carga sintética.
+ * <p>
+ * Configuração por propriedades de sistema, por exemplo:
+ * <pre>
+ * java -Dload.target=127.0.0.1:9090 -Dload.mode=open -Dload.rate=2000 -Dload.concurrency=32 \
+ *      -Dload.mix=import=5,getById=65,getByWarehouse=15,getByItem=15 \
+ *      -cp grpcclientdemo-1.0-SNAPSHOT.jar com.gprcclientdemo.LoadGenerator
+ * </pre>
+ * <ul>
+ *   <li>{@code load.mode=closed}: cada worker dispara a próxima chamada assim que a anterior termina.</li>
+ *   <li>{@code load.mode=open}: as chamadas seguem uma agenda fixa de {@code load.rate} chamadas/s no total.
+ *       A latência "corrigida" é medida a partir do horário agendado, então atrasos acumulados
+ *       (coordinated omission) aparecem nos percentis.</li>
+ *   <li>{@code load.compression=identity|gzip|zstd}: compressão das requisições de import (padrão identity,
+ *       o único aceito pelos servidores em Rust).</li>
+ * </ul>
+ * No modo fechado não existe agenda; a coluna corrigida usa o tempo médio de cada RPC como intervalo esperado
+ * ({@link Histogram#copyCorrectedForCoordinatedOmission(long)}) e é só uma aproximação.
+ * <p>
+ * As linhas service e corrected medem só as chamadas bem-sucedidas. A linha all inclui também as que falharam
+ * ou estouraram o deadline (pelo horário agendado no modo aberto), para que um servidor que responde rápido
+ * com erro, ou que só termina no deadline, não pareça melhor do que é.
+ */
+public class LoadGenerator {
+
+    enum Operation {
+        IMPORT("import"),
+        GET_BY_ID("getById"),
+        GET_BY_WAREHOUSE("getByWarehouse"),
+        GET_BY_ITEM("getByItem");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equalsIgnoreCase(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation in load.mix: " + key);
+        }
+    }
+
+    record Config(
+            String target,
+            boolean openLoop,
+            int concurrency,
+            double rate,
+            long warmupSeconds,
+            long durationSeconds,
+            long deadlineMillis,
+            int[] mix,
+            int importBatchSize,
+            long skuCount,
+            int warehouses,
+            int pageSize,
+            long seed,
+            Compression compression
+    ) {
+        static Config fromSystemProperties() {
+            String mode = System.getProperty("load.mode", "closed");
+            if (!mode.equals("closed") && !mode.equals("open")) {
+                throw new IllegalArgumentException("load.mode must be 'closed' or 'open': " + mode);
+            }
+            double rate = Double.parseDouble(System.getProperty("load.rate", "1000"));
+            if (mode.equals("open") && rate <= 0) {
+                throw new IllegalArgumentException("load.rate must be positive in open mode");
+            }
+            return new Config(
+                    System.getProperty("load.target", "127.0.0.1:9090"),
+                    mode.equals("open"),
+                    Integer.getInteger("load.concurrency", 16),
+                    rate,
+                    Long.getLong("load.warmup-seconds", 10),
+                    Long.getLong("load.duration-seconds", 60),
+                    Long.getLong("load.deadline-millis", 10_000),
+                    parseMix(System.getProperty("load.mix", "import=10,getById=60,getByWarehouse=15,getByItem=15")),
+                    Integer.getInteger("load.import-batch-size", 1000),
+                    Long.getLong("load.sku-count", 100_000),
+                    Integer.getInteger("load.warehouses", 32),
+                    Integer.getInteger("load.page-size", 100),
+                    Long.getLong("load.seed", 42),
+                    Compression.fromSystemProperty("load.compression"));
+        }
+
+        // Pesos acumulados por ordinal de Operation
+        private static int[] parseMix(String spec) {
+            int[] weights = new int[Operation.values().length];
+            for (String part : spec.split(",")) {
+                String[] keyValue = part.trim().split("=");
+                if (keyValue.length != 2) {
+                    throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+                }
+                weights[Operation.of(keyValue[0].trim()).ordinal()] = Integer.parseInt(keyValue[1].trim());
+            }
+            int[] cumulative = new int[weights.length];
+            int total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulative[i] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("load.mix has no positive weight: " + spec);
+            }
+            return cumulative;
+        }
+
+        Operation pick(SplittableRandom random) {
+            int value = random.nextInt(mix[mix.length - 1]);
+            for (int i = 0; i < mix.length; i++) {
+                if (value < mix[i]) {
+                    return Operation.values()[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Latências em nanos por operação: tempo de serviço e, no modo aberto, tempo desde o horário agendado, das
+     * chamadas bem-sucedidas; {@code all} soma as com erro.
+     */
+    static final class OperationStats {
+        final Recorder service = new Recorder(3);
+        final Recorder response = new Recorder(3);
+        final Recorder all = new Recorder(3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    static void main() throws InterruptedException {
+        Config config = Config.fromSystemProperties();
+        OperationStats[] stats = new OperationStats[Operation.values().length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new OperationStats();
+        }
+
+        ManagedChannel channel = config.compression().configure(ManagedChannelBuilder.forTarget(config.target()))
+                .usePlaintext()
+                .build();
+        SkuServiceGrpc.SkuServiceBlockingStub stub = SkuServiceGrpc.newBlockingStub(channel);
+
+        IO.println("Load against " + config.target() + ": " + (config.openLoop() ? "open loop at " + config.rate() + " calls/s" : "closed loop")
+                + ", " + config.concurrency() + " workers, warmup " + config.warmupSeconds() + " s, duration " + config.durationSeconds() + " s");
+
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+        CountDownLatch done = new CountDownLatch(config.concurrency());
+        for (int worker = 0; worker < config.concurrency(); worker++) {
+            int workerId = worker;
+            executor.submit(() -> {
+                try {
+                    runWorker(config, stub, stats, workerId, start, end);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        // Descarta o que foi gravado durante o aquecimento
+        LockSupport.parkNanos(measureStart - System.nanoTime());
+        for (OperationStats operationStats : stats) {
+            operationStats.service.reset();
+            operationStats.response.reset();
+            operationStats.all.reset();
+            operationStats.errors.reset();
+        }
+
+        done.await();
+        long measuredNanos = System.nanoTime() - measureStart;
+        executor.shutdown();
+        channel.shutdownNow();
+        channel.awaitTermination(5, TimeUnit.SECONDS);
+
+        report(config, stats, measuredNanos);
+    }
+
+    private static void runWorker(Config config, SkuServiceGrpc.SkuServiceBlockingStub stub, OperationStats[] stats,
+                                  int workerId, long start, long end) {
+        SplittableRandom random = new SplittableRandom(config.seed() + workerId);
+        // Cada worker atende sua fatia da taxa, com início defasado para não disparar todos juntos
+        long intervalNanos = config.openLoop() ? (long) (config.concurrency() * 1_000_000_000d / config.rate()) : 0;
+        long intended = start + intervalNanos * workerId / Math.max(1, config.concurrency());
+
+        while (true) {
+            long now = System.nanoTime();
+            if (config.openLoop()) {
+                if (intended >= end) {
+                    return;
+                }
+                if (intended > now) {
+                    LockSupport.parkNanos(intended - now);
+                }
+            } else if (now >= end) {
+                return;
+            }
+
+            Operation operation = config.pick(random);
+            long callStart = System.nanoTime();
+            boolean ok = call(config, stub, operation, random);
+            long callEnd = System.nanoTime();
+
+            OperationStats operationStats = stats[operation.ordinal()];
+            operationStats.all.recordValue(callEnd - (config.openLoop() ? intended : callStart));
+            if (ok) {
+                operationStats.service.recordValue(callEnd - callStart);
+                if (config.openLoop()) {
+                    operationStats.response.recordValue(callEnd - intended);
+                }
+            } else {
+                operationStats.errors.increment();
+            }
+            intended += intervalNanos;
+        }
+    }
+
+    private static boolean call(Config config, SkuServiceGrpc.SkuServiceBlockingStub stub, Operation operation, SplittableRandom random) {
+        SkuServiceGrpc.SkuServiceBlockingStub deadlineStub = stub.withDeadlineAfter(config.deadlineMillis(), TimeUnit.MILLISECONDS);
+        try {
+            switch (operation) {
+                case IMPORT -> {
+                    SkuRequest.Builder request = SkuRequest.newBuilder();
+                    for (int i = 0; i < config.importBatchSize(); i++) {
+                        request.addSkus(syntheticSku(config, random, 1 + random.nextLong(config.skuCount())));
+                    }
+                    // Só os imports são comprimidos; as buscas pequenas não compensam a CPU
+                    config.compression().apply(deadlineStub).importSkus(request.build());
+                }
+                case GET_BY_ID -> deadlineStub.getById(SkuGetByIdRequest.newBuilder()
+                        .setSkuId(1 + random.nextLong(config.skuCount()))
+                        .build());
+                case GET_BY_WAREHOUSE -> deadlineStub.getByWarehouse(SkuByWarehouseRequest.newBuilder()
+                        .setWarehouseId(1 + random.nextInt(config.warehouses()))
+                        .setPageSize(config.pageSize())
+                        .build());
+                case GET_BY_ITEM -> deadlineStub.getByItem(SkuByItemRequest.newBuilder()
+                        .setItemId(itemId(1 + random.nextLong(config.skuCount())))
+                        .setPageSize(config.pageSize())
+                        .build());
+            }
+            return true;
+        } catch (StatusRuntimeException e) {
+            // Sku inexistente é uma resposta válida (os servidores em Rust devolvem NOT_FOUND)
+            return e.getStatus().getCode() == Status.Code.NOT_FOUND;
+        }
+    }
+
+    // Mesmo formato do Client: warehouse e item derivados do sku_id, para as buscas encontrarem o que foi importado
+    private static Sku syntheticSku(Config config, SplittableRandom random, long skuId) {
+        long priceNanos = (1 + random.nextLong(10_000)) * 10_000_000L;
+        long epochMillis = System.currentTimeMillis();
+        return Sku.newBuilder()
+                .setSkuId(skuId)
+                .setWarehouseId(1 + skuId % config.warehouses())
+                .setItemId(itemId(skuId))
+                .setAmount(random.nextInt(1000))
+                .setCountryCode("BR")
+                .setAvailabilityType(Sku.AvailabilityType.forNumber(random.nextInt(5)))
+                .setBasePrice(Money.newBuilder()
+                        .setCurrencyCode("BRL")
+                        .setUnits(priceNanos / 1_000_000_000L)
+                        .setNanos((int) (priceNanos % 1_000_000_000L)))
+                .setLastUpdated(Timestamp.newBuilder()
+                        .setSeconds(epochMillis / 1000)
+                        .setNanos((int) (epochMillis % 1000) * 1_000_000))
+                .build();
+    }
+
+    private static long itemId(long skuId) {
+        return 1 + skuId / 4;
+    }
+
+    private static void report(Config config, OperationStats[] stats, long measuredNanos) {
+        double seconds = measuredNanos / 1_000_000_000d;
+        Histogram total = new Histogram(3);
+        Histogram totalAll = new Histogram(3);
+        long totalCalls = 0;
+        long totalErrors = 0;
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-15s %-9s %10s %8s %9s %9s %9s %9s %9s %9s %9s",
+                "operation", "latency", "calls", "errors", "calls/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms"));
+
+        for (Operation operation : Operation.values()) {
+            OperationStats operationStats = stats[operation.ordinal()];
+            Histogram service = operationStats.service.getIntervalHistogram();
+            long errors = operationStats.errors.sum();
+            if (service.getTotalCount() == 0 && errors == 0) {
+                continue;
+            }
+            Histogram corrected = config.openLoop()
+                    ? operationStats.response.getIntervalHistogram()
+                    : service.copyCorrectedForCoordinatedOmission((long) service.getMean());
+            // A correção do modo fechado insere amostras sintéticas; as contagens vêm sempre do tempo de serviço
+            long calls = service.getTotalCount();
+            lines.add(line(operation.key, "service", service, calls, errors, seconds));
+            lines.add(line(operation.key, "corrected", corrected, calls, errors, seconds));
+            Histogram all = operationStats.all.getIntervalHistogram();
+            lines.add(line(operation.key, "all", all, all.getTotalCount(), errors, seconds));
+            total.add(corrected);
+            totalAll.add(all);
+            totalCalls += calls;
+            totalErrors += errors;
+        }
+        lines.add(line("total", "corrected", total, totalCalls, totalErrors, seconds));
+        lines.add(line("total", "all", totalAll, totalAll.getTotalCount(), totalErrors, seconds));
+
+        IO.println("");
+        lines.forEach(IO::println);
+        IO.println(config.compression().summary());
+    }
+
+    private static String line(String operation, String kind, Histogram histogram, long calls, long errors, double seconds) {
+        return String.format("%-15s %-9s %10d %8d %9.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+                operation, kind, calls, errors, calls / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getValueAtPercentile(99.99)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
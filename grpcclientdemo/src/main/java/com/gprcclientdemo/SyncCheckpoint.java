@@ -0,0 +1,59 @@
+package com.gprcclientdemo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Marca d'água da sincronização incremental: o último {@code (alterado, sku_id)} confirmado pelo servidor.
+ * O arquivo é regravado por inteiro num temporário e movido por cima, então uma falha no meio
+ * deixa a marca anterior intacta.
+ */
+record SyncCheckpoint(LocalDateTime alterado, long skuId) implements Comparable<SyncCheckpoint> {
+
+    private static final String ALTERADO = "alterado";
+    private static final String SKU_ID = "sku_id";
+
+    static Optional<SyncCheckpoint> load(Path file) {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read sync checkpoint " + file, e);
+        }
+        return Optional.of(new SyncCheckpoint(
+                LocalDateTime.parse(properties.getProperty(ALTERADO)),
+                Long.parseLong(properties.getProperty(SKU_ID))));
+    }
+
+    void save(Path file) {
+        Properties properties = new Properties();
+        properties.setProperty(ALTERADO, alterado.toString());
+        properties.setProperty(SKU_ID, Long.toString(skuId));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "Ultimo registro confirmado pelo servidor");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write sync checkpoint " + file, e);
+        }
+    }
+
+    @Override
+    public int compareTo(SyncCheckpoint other) {
+        int byAlterado = alterado.compareTo(other.alterado);
+        return byAlterado != 0 ? byAlterado : Long.compare(skuId, other.skuId);
+    }
+}
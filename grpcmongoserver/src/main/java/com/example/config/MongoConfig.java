@@ -2,13 +2,28 @@ package com.example.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
 
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 public class MongoConfig {
 
+    /** Coleção dos skus; a entidade {@link com.example.sku.Sku} é comum aos servidores e não tem mapeamento do Spring Data. */
+    public static final String SKU_COLLECTION = "skus";
+
+    /**
+     * Índices compostos das consultas de lista: o filtro e a ordem por _id da página por keyset saem do índice,
+     * sem ordenar em memória. Criados na subida pelo {@link com.example.sku.SkuSchema}.
+     */
+    public static final List<IndexDefinition> SKU_INDEXES = List.of(
+            new Index().on("warehouse_id", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("warehouse_id_sku_id"),
+            new Index().on("item_id", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("item_id_sku_id"));
+
     @Bean
     public MongoCustomConversions mongoCustomConversions() {
         return new MongoCustomConversions(Arrays.asList(
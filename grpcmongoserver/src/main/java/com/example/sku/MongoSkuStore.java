@@ -0,0 +1,76 @@
+package com.example.sku;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * {@link SkuStore} sobre o MongoDB: gravações pelo bulkWrite condicional do {@link SkuBulkLoader}
+ * e leituras direto para o proto pelo {@link SkuProtoRepository}.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoSkuStore implements SkuStore {
+
+    private final SkuProtoRepository skuProtoRepository;
+    private final SkuBulkLoader skuBulkLoader;
+
+    public MongoSkuStore(SkuProtoRepository skuProtoRepository, SkuBulkLoader skuBulkLoader) {
+        this.skuProtoRepository = skuProtoRepository;
+        this.skuBulkLoader = skuBulkLoader;
+    }
+
+    @Override
+    public SkuWriteResult save(Sku... skus) {
+        return skuBulkLoader.load(skus);
+    }
+
+    @Override
+    public Optional<com.example.sku.grpc.Sku> findById(long skuId) {
+        return skuProtoRepository.findById(skuId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> skuIds) {
+        return skuProtoRepository.findByIds(skuIds);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId) {
+        return skuProtoRepository.findByWarehouseId(warehouseId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId) {
+        return skuProtoRepository.findByItemId(itemId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit) {
+        return skuProtoRepository.findByWarehouseId(warehouseId, afterSkuId, limit);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit) {
+        return skuProtoRepository.findByItemId(itemId, afterSkuId, limit);
+    }
+
+    @Override
+    public void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuProtoRepository.streamByWarehouseId(warehouseId, consumer);
+    }
+
+    @Override
+    public void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuProtoRepository.streamByItemId(itemId, consumer);
+    }
+
+    @Override
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuProtoRepository.streamAll(consumer);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sku;
+
+import com.example.config.MongoConfig;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Carga em massa via {@code bulkWrite} não ordenado com upsert condicional por {@code _id}.
+ * Monta os documentos direto, sem passar pelo mapeamento do Spring Data e pelos converters de data.
+ * <p>
+ * Cada update é um pipeline que só troca o documento se o sku recebido não for mais antigo e tiver conteúdo
+ * diferente; caso contrário devolve o próprio documento, o que o servidor trata como no-op (sem escrita nem oplog).
+ */
+@Repository
+public class SkuBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuBulkLoader.class);
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    // Campos comparados para decidir se o sku mudou; item_id e country_code não mudam num upsert
+    private static final List<String> CONTENT_FIELDS = List.of(
+            "warehouse_id", "amount", "availability_type", "price_nanos", "currency_code");
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private final MongoCollection<Document> collection;
+    private final int bulkSize;
+
+    public SkuBulkLoader(MongoTemplate mongoTemplate,
+                         @Value("${sku.import.bulk-size:1000}") int bulkSize,
+                         @Value("${sku.import.bulk-write-concern:}") String writeConcern) {
+        MongoCollection<Document> skus = mongoTemplate.getCollection(MongoConfig.SKU_COLLECTION);
+        // Ex.: W1 ou MAJORITY; vazio mantém o write concern do cliente
+        this.collection = writeConcern.isBlank() ? skus : skus.withWriteConcern(writeConcern(writeConcern));
+        // Sem confirmação não há contagem: o import responderia 0 aplicados, o cache e o feed não seriam
+        // atualizados e a resposta chegaria ao cliente antes da escrita estar durável
+        if (!collection.getWriteConcern().isAcknowledged()) {
+            throw new IllegalArgumentException("Unacknowledged write concern is not supported for sku imports: "
+                    + collection.getWriteConcern());
+        }
+        this.bulkSize = bulkSize;
+    }
+
+    private static WriteConcern writeConcern(String name) {
+        WriteConcern writeConcern = WriteConcern.valueOf(name);
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown sku.import.bulk-write-concern: " + name);
+        }
+        return writeConcern;
+    }
+
+    public SkuWriteResult load(Sku... skus) {
+        SkuWriteResult result = SkuWriteResult.EMPTY;
+        List<WriteModel<Document>> models = new ArrayList<>(Math.min(bulkSize, skus.length));
+        for (Sku sku : skus) {
+            models.add(new UpdateOneModel<>(Filters.eq("_id", sku.getId()), conditionalReplace(toDocument(sku)), UPSERT));
+            if (models.size() >= bulkSize) {
+                result = result.plus(write(models));
+                models.clear();
+            }
+        }
+        if (!models.isEmpty()) {
+            result = result.plus(write(models));
+        }
+        return result;
+    }
+
+    private SkuWriteResult write(List<WriteModel<Document>> models) {
+        BulkWriteResult bulk = collection.bulkWrite(models, UNORDERED);
+        int upserted = bulk.getUpserts().size();
+        int skipped = bulk.getMatchedCount() - bulk.getModifiedCount();
+        logger.debug("bulkWrite of {} skus: {} matched, {} modified, {} upserted",
+                models.size(), bulk.getMatchedCount(), bulk.getModifiedCount(), upserted);
+        return new SkuWriteResult(models.size(), upserted, bulk.getModifiedCount(), skipped, 1);
+    }
+
+    // { $replaceWith: { $cond: [ <documento novo?> || (<não mais antigo> && <conteúdo diferente>), <novo>, $$ROOT ] } }
+    private static List<Document> conditionalReplace(Document incoming) {
+        List<Document> changed = new ArrayList<>(CONTENT_FIELDS.size());
+        for (String field : CONTENT_FIELDS) {
+            changed.add(new Document("$ne", List.of("$" + field, literal(incoming.get(field)))));
+        }
+        Document apply = new Document("$or", List.of(
+                // No upsert o pipeline roda sobre um documento só com _id
+                new Document("$eq", List.of(new Document("$type", "$item_id"), "missing")),
+                new Document("$and", List.of(
+                        new Document("$lte", List.of("$last_updated", literal(incoming.get("last_updated")))),
+                        new Document("$or", changed)))));
+        return List.of(new Document("$replaceWith",
+                new Document("$cond", List.of(apply, literal(incoming), "$$ROOT"))));
+    }
+
+    // Valores do sku entram como literais para que strings começando com $ não sejam lidas como expressões
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    // Mesmos nomes de campo e tipos BSON lidos pelo SkuProtoCodec
+    private static Document toDocument(Sku sku) {
+        Document document = new Document("_id", sku.getId());
+        document.put("warehouse_id", sku.getWarehouseId());
+        document.put("item_id", sku.getItemId());
+        document.put("amount", sku.getAmount());
+        document.put("country_code", sku.getCountryCode());
+        document.put("availability_type", sku.getAvailabilityType().name());
+        document.put("price_nanos", sku.getPriceNanos());
+        document.put("currency_code", sku.getCurrencyCode());
+        document.put("last_updated", sku.getLastUpdated() != null ? Date.from(sku.getLastUpdated().toInstant()) : null);
+        return document;
+    }
+}
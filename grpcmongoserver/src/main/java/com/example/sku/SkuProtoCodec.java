@@ -0,0 +1,117 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.google.protobuf.Timestamp;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Converte o documento BSON de {@code skus} direto de e para o proto, sem Document intermediário,
+ * sem a entidade e sem os converters do Spring Data. O encode grava os mesmos campos e tipos BSON do
+ * {@link SkuBulkLoader}, então um sku codificado aqui volta igual pelo decode.
+ */
+public final class SkuProtoCodec implements Codec<Sku> {
+
+    @Override
+    public Sku decode(BsonReader reader, DecoderContext decoderContext) {
+        Sku.Builder builder = Sku.newBuilder();
+        long priceNanos = 0;
+        boolean hasPrice = false;
+        String currencyCode = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> builder.setSkuId(readLong(reader));
+                case "warehouse_id" -> builder.setWarehouseId(readLong(reader));
+                case "item_id" -> builder.setItemId(readLong(reader));
+                case "amount" -> builder.setAmount((int) readLong(reader));
+                case "country_code" -> builder.setCountryCode(reader.readString());
+                case "availability_type" -> builder.setAvailabilityType(Sku.AvailabilityType.valueOf(reader.readString()));
+                case "price_nanos" -> {
+                    priceNanos = readLong(reader);
+                    hasPrice = true;
+                }
+                // Documentos gravados antes do preço em ponto fixo
+                case "price_amount" -> {
+                    priceNanos = readDecimal(reader).movePointRight(9).longValue();
+                    hasPrice = true;
+                }
+                case "currency_code" -> currencyCode = reader.readString();
+                case "last_updated" -> {
+                    long millis = reader.readDateTime();
+                    builder.setLastUpdated(Timestamp.newBuilder()
+                            .setSeconds(Math.floorDiv(millis, 1000L))
+                            .setNanos((int) Math.floorMod(millis, 1000L) * 1_000_000));
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (hasPrice) {
+            builder.setBasePrice(MoneyNanos.toMoney(priceNanos, currencyCode != null ? currencyCode : "USD"));
+        }
+        return builder.build();
+    }
+
+    private static long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> reader.readInt64();
+        };
+    }
+
+    private static BigDecimal readDecimal(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> BigDecimal.valueOf(reader.readDouble());
+            case STRING -> new BigDecimal(reader.readString());
+            default -> reader.readDecimal128().bigDecimalValue();
+        };
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Sku value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt64("_id", value.getSkuId());
+        if (value.hasWarehouseId()) {
+            writer.writeInt64("warehouse_id", value.getWarehouseId());
+        } else {
+            writer.writeNull("warehouse_id");
+        }
+        writer.writeInt64("item_id", value.getItemId());
+        writer.writeInt32("amount", value.getAmount());
+        writer.writeString("country_code", value.getCountryCode());
+        writer.writeString("availability_type", value.getAvailabilityType().name());
+        if (value.hasBasePrice()) {
+            writer.writeInt64("price_nanos", MoneyNanos.toNanos(value.getBasePrice()));
+            writer.writeString("currency_code", value.getBasePrice().getCurrencyCode());
+        } else {
+            writer.writeNull("price_nanos");
+            writer.writeNull("currency_code");
+        }
+        if (value.hasLastUpdated()) {
+            Timestamp lastUpdated = value.getLastUpdated();
+            writer.writeDateTime("last_updated", lastUpdated.getSeconds() * 1000L + lastUpdated.getNanos() / 1_000_000);
+        } else {
+            writer.writeNull("last_updated");
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Sku> getEncoderClass() {
+        return Sku.class;
+    }
+}
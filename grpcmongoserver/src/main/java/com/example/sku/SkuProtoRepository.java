@@ -0,0 +1,103 @@
+package com.example.sku;
+
+import com.example.config.MongoConfig;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Consultas de leitura que devolvem o proto direto do cursor via {@link SkuProtoCodec}.
+ */
+@Repository
+public class SkuProtoRepository {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    private final MongoCollection<com.example.sku.grpc.Sku> collection;
+
+    public SkuProtoRepository(MongoTemplate mongoTemplate) {
+        MongoCollection<?> skus = mongoTemplate.getCollection(MongoConfig.SKU_COLLECTION);
+        this.collection = skus
+                .withDocumentClass(com.example.sku.grpc.Sku.class)
+                .withCodecRegistry(CodecRegistries.fromRegistries(
+                        CodecRegistries.fromCodecs(new SkuProtoCodec()),
+                        skus.getCodecRegistry()));
+    }
+
+    public Optional<com.example.sku.grpc.Sku> findById(long id) {
+        return Optional.ofNullable(collection.find(Filters.eq("_id", id)).first());
+    }
+
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> ids) {
+        return collection.find(Filters.in("_id", ids)).into(new ArrayList<>(ids.size()));
+    }
+
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId) {
+        return collection.find(Filters.eq("warehouse_id", warehouseId)).into(new ArrayList<>());
+    }
+
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId) {
+        return collection.find(Filters.eq("item_id", itemId)).into(new ArrayList<>());
+    }
+
+    // Paginação por keyset sobre o _id
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit) {
+        return page(Filters.eq("warehouse_id", warehouseId), afterSkuId, limit);
+    }
+
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit) {
+        return page(Filters.eq("item_id", itemId), afterSkuId, limit);
+    }
+
+    public void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(Filters.eq("warehouse_id", warehouseId), consumer);
+    }
+
+    public void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(Filters.eq("item_id", itemId), consumer);
+    }
+
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(Filters.empty(), consumer);
+    }
+
+    /** Planos das consultas de lista, com chaves de exemplo, para o {@link SkuSchema} conferir na subida. */
+    Map<String, Document> explainListQueries() {
+        Bson byWarehouse = Filters.eq("warehouse_id", 1L);
+        Bson byItem = Filters.eq("item_id", 1L);
+        return Map.of(
+                "byWarehouse", collection.find(byWarehouse).explain(),
+                "byItem", collection.find(byItem).explain(),
+                "pageByWarehouse", pageQuery(byWarehouse, 0L, 100).explain(),
+                "pageByItem", pageQuery(byItem, 0L, 100).explain());
+    }
+
+    private List<com.example.sku.grpc.Sku> page(Bson filter, long afterSkuId, int limit) {
+        return pageQuery(filter, afterSkuId, limit).into(new ArrayList<>(limit));
+    }
+
+    private FindIterable<com.example.sku.grpc.Sku> pageQuery(Bson filter, long afterSkuId, int limit) {
+        return collection.find(Filters.and(filter, Filters.gt("_id", afterSkuId)))
+                .sort(Sorts.ascending("_id"))
+                .limit(limit);
+    }
+
+    // O forEach do driver fecha o cursor mesmo quando o consumer interrompe a leitura com exceção
+    private void stream(Bson filter, Consumer<com.example.sku.grpc.Sku> consumer) {
+        FindIterable<com.example.sku.grpc.Sku> cursor = collection.find(filter).batchSize(CURSOR_BATCH_SIZE);
+        cursor.forEach(consumer);
+    }
+}
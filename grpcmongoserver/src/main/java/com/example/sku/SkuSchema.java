@@ -0,0 +1,80 @@
+package com.example.sku;
+
+import com.example.config.MongoConfig;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cria os índices de {@link MongoConfig#SKU_INDEXES} se faltarem ({@code sku.schema.manage}) e confere com explain
+ * que as consultas de lista do {@link SkuProtoRepository} usam índice. Uma consulta cujo plano vencedor é COLLSCAN
+ * gera um aviso no log ou, com {@code sku.schema.on-full-scan=refuse}, deixa a aplicação fora de prontidão
+ * (readiness). Roda na criação do bean, antes do servidor gRPC aceitar chamadas.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "mongo", matchIfMissing = true)
+public class SkuSchema implements ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuSchema.class);
+
+    private final ApplicationEventPublisher publisher;
+    private final boolean refuseOnFullScan;
+    private final List<String> fullScans = new ArrayList<>();
+
+    public SkuSchema(MongoTemplate mongoTemplate,
+                     SkuProtoRepository skuProtoRepository,
+                     ApplicationEventPublisher publisher,
+                     @Value("${sku.schema.manage:true}") boolean manage,
+                     @Value("${sku.schema.on-full-scan:warn}") String onFullScan) {
+        this.publisher = publisher;
+        this.refuseOnFullScan = switch (onFullScan) {
+            case "warn" -> false;
+            case "refuse" -> true;
+            default -> throw new IllegalArgumentException("sku.schema.on-full-scan must be warn or refuse, got " + onFullScan);
+        };
+        try {
+            if (manage) {
+                // createIndex não faz nada quando o índice já existe com a mesma definição
+                IndexOperations indexOps = mongoTemplate.indexOps(MongoConfig.SKU_COLLECTION);
+                MongoConfig.SKU_INDEXES.forEach(indexOps::createIndex);
+            }
+            skuProtoRepository.explainListQueries().forEach(this::checkPlan);
+        } catch (RuntimeException e) {
+            // Banco fora do ar na subida: as chamadas falham até ele voltar, e não há plano a conferir
+            logger.warn("Could not verify the sku indexes: {}", e.getMessage());
+        }
+    }
+
+    // O Spring Boot publica ACCEPTING_TRAFFIC ao fim da subida; com refuse a aplicação volta para REFUSING_TRAFFIC
+    @Override
+    public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (refuseOnFullScan && !fullScans.isEmpty() && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            logger.error("Refusing readiness, sku queries without a usable index: {}", fullScans);
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    // O planejador do Mongo usa um índice elegível mesmo com a coleção vazia, então COLLSCAN é falta de índice
+    private void checkPlan(String name, Document explain) {
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        String winningPlan = queryPlanner != null ? queryPlanner.get("winningPlan", Document.class).toJson() : explain.toJson();
+        if (winningPlan.contains("\"COLLSCAN\"")) {
+            fullScans.add(name);
+            logger.warn("Sku query {} does a full collection scan: {}", name, winningPlan);
+        } else {
+            logger.debug("Sku query {} plan: {}", name, winningPlan);
+        }
+    }
+}
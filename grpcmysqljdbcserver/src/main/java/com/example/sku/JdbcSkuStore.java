@@ -0,0 +1,80 @@
+package com.example.sku;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * {@link SkuStore} sobre o banco: upsert em lotes pelo {@link SkuRepository} e carga em massa pelo {@link SkuBulkLoader}.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcSkuStore implements SkuStore {
+
+    private final SkuRepository skuRepository;
+    private final SkuBulkLoader skuBulkLoader;
+
+    public JdbcSkuStore(SkuRepository skuRepository, SkuBulkLoader skuBulkLoader) {
+        this.skuRepository = skuRepository;
+        this.skuBulkLoader = skuBulkLoader;
+    }
+
+    @Override
+    public SkuWriteResult save(Sku... skus) {
+        return skuRepository.save(skus);
+    }
+
+    @Override
+    public SkuWriteResult bulkLoad(Sku... skus) {
+        return skuBulkLoader.load(skus);
+    }
+
+    @Override
+    public Optional<com.example.sku.grpc.Sku> findById(long skuId) {
+        return skuRepository.findById(skuId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> skuIds) {
+        return skuRepository.findByIds(skuIds);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId) {
+        return skuRepository.findByWarehouseId(warehouseId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId) {
+        return skuRepository.findByItemId(itemId);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit) {
+        return skuRepository.findByWarehouseId(warehouseId, afterSkuId, limit);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit) {
+        return skuRepository.findByItemId(itemId, afterSkuId, limit);
+    }
+
+    @Override
+    public void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuRepository.streamByWarehouseId(warehouseId, consumer);
+    }
+
+    @Override
+    public void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuRepository.streamByItemId(itemId, consumer);
+    }
+
+    @Override
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        skuRepository.streamAll(consumer);
+    }
+}
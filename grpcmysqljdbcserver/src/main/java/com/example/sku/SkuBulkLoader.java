@@ -0,0 +1,200 @@
+package com.example.sku;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Carga em massa via {@code LOAD DATA LOCAL INFILE} alimentado por um InputStream em memória.
+ * Os skus vão para uma tabela de staging e um único {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}
+ * faz o merge em {@code skus}. Requer {@code allowLoadLocalInfile=true} na URL e {@code local_infile=ON} no servidor.
+ */
+@Repository
+public class SkuBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuBulkLoader.class);
+
+    // Tabela temporária: privada da sessão, criada uma vez por conexão do pool
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE IF NOT EXISTS skus_staging (
+                    seq               INT NOT NULL,
+                    sku_id            BIGINT,
+                    warehouse_id      BIGINT,
+                    item_id           BIGINT,
+                    amount            INT,
+                    country_code      VARCHAR(64),
+                    availability_type VARCHAR(64),
+                    price_nanos       BIGINT,
+                    currency_code     VARCHAR(64),
+                    last_updated      DATETIME(6)
+            )
+            """;
+
+    private static final String LOAD_SQL = """
+            LOAD DATA LOCAL INFILE 'skus.tsv'
+            INTO TABLE skus_staging
+            CHARACTER SET utf8mb4
+            FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'
+            LINES TERMINATED BY '\\n'
+            (seq, sku_id, warehouse_id, item_id, amount, country_code, availability_type, price_nanos, currency_code, last_updated)
+            """;
+
+    // ORDER BY seq faz a última ocorrência de cada sku_id prevalecer, como no upsert linha a linha.
+    // Mesma regra condicional do SkuRepository: linhas iguais ou mais antigas que as gravadas são mantidas.
+    // O alias de linha não vale com INSERT ... SELECT; a staging com alias new faz o papel dele.
+    private static final String MERGE_SQL = """
+            INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability_type, price_nanos, currency_code, last_updated)
+            SELECT new.sku_id, new.warehouse_id, new.item_id, new.amount, new.country_code, new.availability_type,
+                   new.price_nanos, new.currency_code, new.last_updated
+              FROM skus_staging AS new
+             ORDER BY new.seq
+            ON DUPLICATE KEY UPDATE
+                    last_updated      = IF(new.last_updated >= skus.last_updated
+                                           AND NOT ((skus.warehouse_id, skus.amount, skus.availability_type, skus.price_nanos, skus.currency_code)
+                                               <=> (new.warehouse_id, new.amount, new.availability_type,
+                                                    new.price_nanos, new.currency_code)),
+                                           new.last_updated, skus.last_updated),
+                    warehouse_id      = IF(skus.last_updated = new.last_updated, new.warehouse_id, skus.warehouse_id),
+                    amount            = IF(skus.last_updated = new.last_updated, new.amount, skus.amount),
+                    availability_type = IF(skus.last_updated = new.last_updated, new.availability_type, skus.availability_type),
+                    price_nanos       = IF(skus.last_updated = new.last_updated, new.price_nanos, skus.price_nanos),
+                    currency_code     = IF(skus.last_updated = new.last_updated, new.currency_code, skus.currency_code)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SkuBulkLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public SkuWriteResult load(Sku... skus) {
+        return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<SkuWriteResult>) con -> {
+            try (Statement stmt = con.createStatement()) {
+                stmt.execute(CREATE_STAGING_SQL);
+                stmt.execute("DELETE FROM skus_staging");
+
+                stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new SkuTsvInputStream(skus));
+                int loaded = stmt.executeUpdate(LOAD_SQL);
+
+                int affected = stmt.executeUpdate(MERGE_SQL);
+                // Mesma contagem do SkuRepository, pelo "Records/Duplicates" do INSERT ... SELECT
+                SkuWriteResult result = SkuRepository.upsertResult(loaded, affected,
+                        stmt.unwrap(JdbcStatement.class).getResultSetInternal().getServerInfo());
+                stmt.execute("DELETE FROM skus_staging");
+
+                logger.debug("LOAD DATA of {} skus merged: {} inserted, {} updated, {} skipped",
+                        loaded, result.inserted(), result.updated(), result.skipped());
+                return result;
+            }
+        }));
+    }
+
+    /**
+     * Gera as linhas no formato padrão do LOAD DATA (tab, \N para nulo) sob demanda,
+     * sem materializar o arquivo inteiro em memória.
+     */
+    private static final class SkuTsvInputStream extends InputStream {
+
+        private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+        private final Sku[] skus;
+        private final StringBuilder line = new StringBuilder(160);
+        private int next;
+        private byte[] buffer = new byte[0];
+        private int position;
+
+        SkuTsvInputStream(Sku[] skus) {
+            this.skus = skus;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int total = 0;
+            while (total < len && fill()) {
+                int count = Math.min(len - total, buffer.length - position);
+                System.arraycopy(buffer, position, b, off + total, count);
+                position += count;
+                total += count;
+            }
+            return total == 0 ? -1 : total;
+        }
+
+        private boolean fill() {
+            if (position < buffer.length) {
+                return true;
+            }
+            if (next >= skus.length) {
+                return false;
+            }
+            encode(next, skus[next]);
+            next++;
+            buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+
+        private void encode(int seq, Sku sku) {
+            line.setLength(0);
+            line.append(seq).append('\t');
+            append(sku.getId()).append('\t');
+            append(sku.getWarehouseId()).append('\t');
+            append(sku.getItemId()).append('\t');
+            append(sku.getAmount()).append('\t');
+            appendText(sku.getCountryCode()).append('\t');
+            appendText(sku.getAvailabilityType().name()).append('\t');
+            append(sku.getPriceNanos()).append('\t');
+            appendText(sku.getCurrencyCode()).append('\t');
+            // Mesmo fuso que o Connector/J usa ao enviar java.sql.Timestamp no upsert linha a linha
+            if (sku.getLastUpdated() != null) {
+                line.append(TIMESTAMP_FORMAT.format(LocalDateTime.ofInstant(sku.getLastUpdated().toInstant(), ZoneId.systemDefault())));
+            } else {
+                line.append("\\N");
+            }
+            line.append('\n');
+        }
+
+        private StringBuilder append(Number value) {
+            return value != null ? line.append(value) : line.append("\\N");
+        }
+
+        private StringBuilder appendText(String value) {
+            if (value == null) {
+                return line.append("\\N");
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> line.append("\\\\");
+                    case '\t' -> line.append("\\t");
+                    case '\n' -> line.append("\\n");
+                    default -> line.append(c);
+                }
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.google.protobuf.Timestamp;
+import com.google.type.Money;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Lê a linha direto para o {@link Sku.Builder} do proto, por índice de coluna, sem passar pela entidade.
+ * O preço é lido em ponto fixo (nanos) e vira {@link Money} sem BigDecimal.
+ */
+public final class SkuProtoRowMapper implements RowMapper<Sku> {
+
+    /** Colunas na ordem lida pelo mapper; use sempre esta lista no SELECT. */
+    public static final String COLUMNS = "sku_id, warehouse_id, item_id, amount, country_code, availability_type, "
+            + "price_nanos, currency_code, last_updated";
+
+    public static final SkuProtoRowMapper INSTANCE = new SkuProtoRowMapper();
+
+    private static final int SKU_ID = 1;
+    private static final int WAREHOUSE_ID = 2;
+    private static final int ITEM_ID = 3;
+    private static final int AMOUNT = 4;
+    private static final int COUNTRY_CODE = 5;
+    private static final int AVAILABILITY_TYPE = 6;
+    private static final int PRICE_NANOS = 7;
+    private static final int CURRENCY_CODE = 8;
+    private static final int LAST_UPDATED = 9;
+
+    private SkuProtoRowMapper() {
+    }
+
+    @Override
+    public Sku mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Sku.Builder builder = Sku.newBuilder()
+                .setSkuId(rs.getLong(SKU_ID));
+        long warehouseId = rs.getLong(WAREHOUSE_ID);
+        if (!rs.wasNull()) {
+            builder.setWarehouseId(warehouseId);
+        }
+        builder.setItemId(rs.getLong(ITEM_ID));
+        builder.setAmount(rs.getInt(AMOUNT));
+        String countryCode = rs.getString(COUNTRY_CODE);
+        if (countryCode != null) {
+            builder.setCountryCode(countryCode);
+        }
+        String availabilityType = rs.getString(AVAILABILITY_TYPE);
+        if (availabilityType != null) {
+            builder.setAvailabilityType(Sku.AvailabilityType.valueOf(availabilityType));
+        }
+
+        long priceNanos = rs.getLong(PRICE_NANOS);
+        if (!rs.wasNull()) {
+            String currencyCode = rs.getString(CURRENCY_CODE);
+            builder.setBasePrice(MoneyNanos.toMoney(priceNanos, currencyCode != null ? currencyCode : "USD"));
+        }
+
+        java.sql.Timestamp lastUpdated = rs.getTimestamp(LAST_UPDATED);
+        if (lastUpdated != null) {
+            builder.setLastUpdated(Timestamp.newBuilder()
+                    .setSeconds(Math.floorDiv(lastUpdated.getTime(), 1000L))
+                    .setNanos(lastUpdated.getNanos()));
+        }
+        return builder.build();
+    }
+}
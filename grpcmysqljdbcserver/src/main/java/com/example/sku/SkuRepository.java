@@ -1,23 +1,54 @@
 package com.example.sku;
 
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Repository
 public class SkuRepository {
 
+    private static final Logger logger = LoggerFactory.getLogger(SkuRepository.class);
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final Pattern INFO_NUMBER = Pattern.compile("\\d+");
+
+    // Consultas de lista; o SkuSchema confere o plano delas na subida
+    static final String BY_WAREHOUSE = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE warehouse_id = ?";
+    static final String BY_ITEM = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE item_id = ?";
+    static final String PAGE_BY_WAREHOUSE = BY_WAREHOUSE + " AND sku_id > ? ORDER BY sku_id LIMIT ?";
+    static final String PAGE_BY_ITEM = BY_ITEM + " AND sku_id > ? ORDER BY sku_id LIMIT ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final String fullChunkUpsertSql;
 
-    public SkuRepository(JdbcTemplate jdbcTemplate) {
+    public SkuRepository(JdbcTemplate jdbcTemplate,
+                         @Value("${sku.repository.batch-size:500}") int batchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.fullChunkUpsertSql = buildUpsertSql(batchSize);
     }
 
     private final RowMapper<Sku> skuRowMapper = new RowMapper<Sku>() {
@@ -30,7 +61,7 @@ public class SkuRepository {
             sku.setAmount(rs.getInt("amount"));
             sku.setCountryCode(rs.getString("country_code"));
             sku.setAvailabilityType(AvailabilityType.valueOf(rs.getString("availability_type")));
-            sku.setPriceAmount(rs.getBigDecimal("price_amount"));
+            sku.setPriceNanos(rs.getLong("price_nanos"));
             sku.setCurrencyCode(rs.getString("currency_code"));
             
             Timestamp lastUpdated = rs.getTimestamp("last_updated");
@@ -46,53 +77,172 @@ public class SkuRepository {
         return jdbcTemplate.query(sql, skuRowMapper);
     }
 
-    public Optional<Sku> findById(Long id) {
-        String sql = "SELECT * FROM skus WHERE sku_id = ?";
-        List<Sku> skus = jdbcTemplate.query(sql, skuRowMapper, id);
+    public Optional<com.example.sku.grpc.Sku> findById(Long id) {
+        String sql = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE sku_id = ?";
+        List<com.example.sku.grpc.Sku> skus = jdbcTemplate.query(sql, SkuProtoRowMapper.INSTANCE, id);
         return skus.stream().findFirst();
     }
 
-    public List<Sku> findByWarehouseId(Long warehouseId) {
-        String sql = "SELECT * FROM skus WHERE warehouse_id = ?";
-        return jdbcTemplate.query(sql, skuRowMapper, warehouseId);
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<com.example.sku.grpc.Sku> skus = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + ID_CHUNK_SIZE, idList.size()));
+            String sql = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE sku_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            skus.addAll(jdbcTemplate.query(sql, SkuProtoRowMapper.INSTANCE, chunk.toArray()));
+        }
+        return skus;
     }
 
-    public List<Sku> findByItemId(Long itemId) {
-        String sql = "SELECT * FROM skus WHERE item_id = ?";
-        return jdbcTemplate.query(sql, skuRowMapper, itemId);
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(Long warehouseId) {
+        return jdbcTemplate.query(BY_WAREHOUSE, SkuProtoRowMapper.INSTANCE, warehouseId);
     }
 
-    public int save(Sku... skus) {
-        String sql = """
-                INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability_type, price_amount, currency_code, last_updated)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-                ON DUPLICATE KEY UPDATE
-                        warehouse_id      = VALUES(warehouse_id),
-                        amount            = VALUES(amount),
-                        availability_type = VALUES(availability_type),
-                        price_amount      = VALUES(price_amount),
-                        currency_code     = VALUES(currency_code),
-                        last_updated      = VALUES(last_updated);
-                """;
-        int result = 0;
-        for (Sku sku : skus) {
-            result += jdbcTemplate.update(sql,
-                    sku.getId(),
-                    sku.getWarehouseId(),
-                    sku.getItemId(),
-                    sku.getAmount(),
-                    sku.getCountryCode(),
-                    sku.getAvailabilityType().name(),
-                    sku.getPriceAmount(),
-                    sku.getCurrencyCode(),
-                    sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null
-            );
+    public List<com.example.sku.grpc.Sku> findByItemId(Long itemId) {
+        return jdbcTemplate.query(BY_ITEM, SkuProtoRowMapper.INSTANCE, itemId);
+    }
+
+    // Paginação por keyset: usa o índice (warehouse_id, sku_id) e não degrada nas páginas mais distantes
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(Long warehouseId, long afterSkuId, int limit) {
+        return jdbcTemplate.query(PAGE_BY_WAREHOUSE, SkuProtoRowMapper.INSTANCE, warehouseId, afterSkuId, limit);
+    }
+
+    public List<com.example.sku.grpc.Sku> findByItemId(Long itemId, long afterSkuId, int limit) {
+        return jdbcTemplate.query(PAGE_BY_ITEM, SkuProtoRowMapper.INSTANCE, itemId, afterSkuId, limit);
+    }
+
+    public void streamByWarehouseId(Long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(BY_WAREHOUSE, consumer, warehouseId);
+    }
+
+    public void streamByItemId(Long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(BY_ITEM, consumer, itemId);
+    }
+
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream("SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus", consumer);
+    }
+
+    // Integer.MIN_VALUE habilita o streaming linha a linha do Connector/J, sem carregar o resultado inteiro
+    private void stream(String sql, Consumer<com.example.sku.grpc.Sku> consumer, long... params) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.length; i++) {
+                ps.setLong(i + 1, params[i]);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(SkuProtoRowMapper.INSTANCE.mapRow(rs, 0)));
+    }
+
+    public SkuWriteResult save(Sku... skus) {
+        SkuWriteResult result = SkuWriteResult.EMPTY;
+        for (int from = 0; from < skus.length; from += batchSize) {
+            int to = Math.min(from + batchSize, skus.length);
+            result = result.plus(saveChunk(skus, from, to));
         }
         return result;
     }
 
+    // Um único INSERT multi-linha por bloco: uma ida ao banco e uma transação (autocommit) por bloco
+    private SkuWriteResult saveChunk(Sku[] skus, int from, int to) {
+        int rows = to - from;
+        Sku[] chunk = newestPerId(skus, from, to);
+        SkuWriteResult written = jdbcTemplate.execute(upsertSql(chunk.length), (PreparedStatementCallback<SkuWriteResult>) ps -> {
+            int index = 1;
+            for (Sku sku : chunk) {
+                ps.setObject(index++, sku.getId());
+                ps.setObject(index++, sku.getWarehouseId());
+                ps.setObject(index++, sku.getItemId());
+                ps.setObject(index++, sku.getAmount());
+                ps.setString(index++, sku.getCountryCode());
+                ps.setString(index++, sku.getAvailabilityType().name());
+                ps.setObject(index++, sku.getPriceNanos());
+                ps.setString(index++, sku.getCurrencyCode());
+                ps.setTimestamp(index++, sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null);
+            }
+            int affected = ps.executeUpdate();
+            return upsertResult(chunk.length, affected, ps.unwrap(JdbcStatement.class).getResultSetInternal().getServerInfo());
+        });
+        // As versões repetidas que perderam no bloco contam como mantidas
+        SkuWriteResult result = new SkuWriteResult(rows, written.inserted(), written.updated(),
+                rows - written.applied(), written.chunks());
+        logger.debug("Upsert chunk of {} skus: {} inserted, {} updated, {} skipped",
+                rows, result.inserted(), result.updated(), result.skipped());
+        return result;
+    }
+
+    /**
+     * Uma linha por sku_id, com a versão que o upsert linha a linha deixaria gravada. Com o mesmo sku_id duas
+     * vezes no INSERT a segunda ocorrência conta como duplicata e as contagens do {@link #upsertResult} não
+     * fecham.
+     */
+    static Sku[] newestPerId(Sku[] skus, int from, int to) {
+        Map<Long, Sku> newest = new LinkedHashMap<>((to - from) * 2);
+        for (int i = from; i < to; i++) {
+            newest.merge(skus[i].getId(), skus[i],
+                    (kept, next) -> SkuImportPartitioner.supersedes(next, kept) ? next : kept);
+        }
+        return newest.size() == to - from ? Arrays.copyOfRange(skus, from, to) : newest.values().toArray(new Sku[0]);
+    }
+
+    /**
+     * Separa inserções, atualizações e linhas mantidas de um {@code INSERT ... ON DUPLICATE KEY UPDATE} sem
+     * consultar a tabela de novo. Com {@code useAffectedRows=true} na URL cada linha conta 1 se inserida, 2 se
+     * alterada e 0 se mantida, e o "Records: N  Duplicates: D  Warnings: W" que o MySQL devolve no INSERT
+     * multi-linha traz em D as linhas alteradas. Numa linha só não vem esse texto e as contagens bastam.
+     */
+    static SkuWriteResult upsertResult(int rows, int affected, String info) {
+        int updated;
+        if (info == null) {
+            updated = affected == 2 ? 1 : 0;
+        } else {
+            // O texto segue o idioma do servidor (lc_messages): vale a posição dos números, não os rótulos
+            Matcher numbers = INFO_NUMBER.matcher(info);
+            if (!numbers.find() || !numbers.find()) {
+                throw new IllegalStateException("Unexpected upsert info from MySQL: " + info);
+            }
+            updated = Integer.parseInt(numbers.group());
+        }
+        int inserted = affected - 2 * updated;
+        return new SkuWriteResult(rows, inserted, updated, rows - inserted - updated, 1);
+    }
+
+    private String upsertSql(int rows) {
+        return rows == batchSize ? fullChunkUpsertSql : buildUpsertSql(rows);
+    }
+
+    // Upsert condicional: só regrava a linha se o sku recebido não for mais antigo e tiver conteúdo diferente.
+    // As atribuições do ON DUPLICATE KEY UPDATE são aplicadas em ordem e enxergam os valores já alterados,
+    // por isso last_updated decide primeiro (com a linha intacta) e as demais colunas seguem a decisão dele.
+    // Sem mudança de valor o InnoDB não regrava a linha e, com useAffectedRows, ela conta 0.
+    // O alias de linha (AS new) substitui VALUES(col), obsoleto desde o MySQL 8.0.20.
+    private static String buildUpsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(160 + rows * 20);
+        sql.append("INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability_type, price_nanos, currency_code, last_updated) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ",").append("(?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        sql.append("""
+
+                AS new
+                ON DUPLICATE KEY UPDATE
+                        last_updated      = IF(new.last_updated >= skus.last_updated
+                                               AND NOT ((skus.warehouse_id, skus.amount, skus.availability_type, skus.price_nanos, skus.currency_code)
+                                                   <=> (new.warehouse_id, new.amount, new.availability_type,
+                                                        new.price_nanos, new.currency_code)),
+                                               new.last_updated, skus.last_updated),
+                        warehouse_id      = IF(skus.last_updated = new.last_updated, new.warehouse_id, skus.warehouse_id),
+                        amount            = IF(skus.last_updated = new.last_updated, new.amount, skus.amount),
+                        availability_type = IF(skus.last_updated = new.last_updated, new.availability_type, skus.availability_type),
+                        price_nanos       = IF(skus.last_updated = new.last_updated, new.price_nanos, skus.price_nanos),
+                        currency_code     = IF(skus.last_updated = new.last_updated, new.currency_code, skus.currency_code)
+                """);
+        return sql.toString();
+    }
+
     public int update(Sku sku) {
-        String sql = "UPDATE skus SET warehouse_id = ?, item_id = ?, amount = ?, country_code = ?, availability_type = ?, price_amount = ?, currency_code = ?, last_updated = ? " +
+        String sql = "UPDATE skus SET warehouse_id = ?, item_id = ?, amount = ?, country_code = ?, availability_type = ?, price_nanos = ?, currency_code = ?, last_updated = ? " +
                 "WHERE sku_id = ?";
         return jdbcTemplate.update(sql,
                 sku.getWarehouseId(),
@@ -100,7 +250,7 @@ public class SkuRepository {
                 sku.getAmount(),
                 sku.getCountryCode(),
                 sku.getAvailabilityType().name(),
-                sku.getPriceAmount(),
+                sku.getPriceNanos(),
                 sku.getCurrencyCode(),
                 sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null,
                 sku.getId()
@@ -0,0 +1,116 @@
+package com.example.sku;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cria a tabela e os índices dos skus se faltarem ({@code sku.schema.manage}) e confere com EXPLAIN
+ * que as consultas de lista do {@link SkuRepository} usam índice. Uma consulta que só tem varredura completa
+ * gera um aviso no log ou, com {@code sku.schema.on-full-scan=refuse}, deixa a aplicação fora de prontidão
+ * (readiness). Roda na criação do bean, antes do servidor gRPC aceitar chamadas.
+ * <p>
+ * Os índices de lista são (chave, sku_id). O InnoDB não tem INCLUDE e cada índice secundário já leva a chave
+ * primária, então o índice entrega os sku_ids na ordem da página e as linhas saem do índice clusterizado.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "jdbc", matchIfMissing = true)
+public class SkuSchema implements ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuSchema.class);
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS skus (
+                sku_id            BIGINT UNSIGNED PRIMARY KEY,
+                warehouse_id      BIGINT UNSIGNED DEFAULT NULL,
+                item_id           BIGINT UNSIGNED NOT NULL,
+                amount            INT UNSIGNED NOT NULL DEFAULT 0,
+                country_code      VARCHAR(3) NOT NULL,
+                availability_type ENUM('READY_TO_SHIP', 'MADE_TO_ORDER', 'OPEN_BOX', 'USED', 'REFURBISHED') NOT NULL DEFAULT 'READY_TO_SHIP',
+                price_nanos       BIGINT NOT NULL,
+                currency_code     CHAR(3) NOT NULL DEFAULT 'USD',
+                last_updated      TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
+            )""";
+
+    // O MySQL não tem CREATE INDEX IF NOT EXISTS
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_skus_warehouse_sku", "CREATE INDEX idx_skus_warehouse_sku ON skus (warehouse_id, sku_id)",
+            "idx_skus_item_sku", "CREATE INDEX idx_skus_item_sku ON skus (item_id, sku_id)");
+
+    private static final Map<String, String> HOT_QUERIES = Map.of(
+            "byWarehouse", SkuRepository.BY_WAREHOUSE,
+            "byItem", SkuRepository.BY_ITEM,
+            "pageByWarehouse", SkuRepository.PAGE_BY_WAREHOUSE,
+            "pageByItem", SkuRepository.PAGE_BY_ITEM);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher publisher;
+    private final boolean refuseOnFullScan;
+    private final List<String> fullScans = new ArrayList<>();
+
+    public SkuSchema(JdbcTemplate jdbcTemplate,
+                     ApplicationEventPublisher publisher,
+                     @Value("${sku.schema.manage:true}") boolean manage,
+                     @Value("${sku.schema.on-full-scan:warn}") String onFullScan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.publisher = publisher;
+        this.refuseOnFullScan = switch (onFullScan) {
+            case "warn" -> false;
+            case "refuse" -> true;
+            default -> throw new IllegalArgumentException("sku.schema.on-full-scan must be warn or refuse, got " + onFullScan);
+        };
+        try {
+            if (manage) {
+                jdbcTemplate.execute(CREATE_TABLE);
+                INDEXES.forEach(this::createIndex);
+            }
+            HOT_QUERIES.forEach(this::checkPlan);
+        } catch (RuntimeException e) {
+            // Banco fora do ar na subida: as chamadas falham até ele voltar, e não há plano a conferir
+            logger.warn("Could not verify the sku schema: {}", e.getMessage());
+        }
+    }
+
+    // O Spring Boot publica ACCEPTING_TRAFFIC ao fim da subida; com refuse a aplicação volta para REFUSING_TRAFFIC
+    @Override
+    public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (refuseOnFullScan && !fullScans.isEmpty() && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            logger.error("Refusing readiness, sku queries without a usable index: {}", fullScans);
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    private void createIndex(String name, String ddl) {
+        Integer existing = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.statistics
+                 WHERE table_schema = DATABASE() AND table_name = 'skus' AND index_name = ?""", Integer.class, name);
+        if (existing == null || existing == 0) {
+            logger.info("Creating index {}", name);
+            jdbcTemplate.execute(ddl);
+        }
+    }
+
+    // type ALL sem possible_keys: não há índice que sirva. Só type ALL não basta, o otimizador varre tabelas
+    // pequenas ou vazias mesmo tendo o índice certo
+    private void checkPlan(String name, String sql) {
+        Object[] params = sql.endsWith("LIMIT ?") ? new Object[]{1L, 0L, 100} : new Object[]{1L};
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, params);
+        if (plan.stream().anyMatch(row -> "ALL".equals(row.get("type")) && row.get("possible_keys") == null)) {
+            fullScans.add(name);
+            logger.warn("Sku query {} does a full table scan: {}", name, plan);
+        } else {
+            logger.debug("Sku query {} plan: {}", name, plan);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkuRepositoryTest {
+
+    @Test
+    void multiRowUpsertCountsComeFromAffectedRowsAndDuplicates() {
+        // 2 inseridas (2), 3 alteradas (6) e 5 mantidas (0)
+        SkuWriteResult result = SkuRepository.upsertResult(10, 8, "Records: 10  Duplicates: 3  Warnings: 0");
+
+        assertThat(result).isEqualTo(new SkuWriteResult(10, 2, 3, 5, 1));
+    }
+
+    @Test
+    void infoIsReadByPositionWhateverTheServerLanguage() {
+        SkuWriteResult result = SkuRepository.upsertResult(4, 5, "Registros: 4 - Duplicados: 2 - Avisos: 0");
+
+        assertThat(result).isEqualTo(new SkuWriteResult(4, 1, 2, 1, 1));
+    }
+
+    @Test
+    void singleRowUpsertHasNoInfo() {
+        assertThat(SkuRepository.upsertResult(1, 1, null)).isEqualTo(new SkuWriteResult(1, 1, 0, 0, 1));
+        assertThat(SkuRepository.upsertResult(1, 2, null)).isEqualTo(new SkuWriteResult(1, 0, 1, 0, 1));
+        assertThat(SkuRepository.upsertResult(1, 0, null)).isEqualTo(new SkuWriteResult(1, 0, 0, 1, 1));
+    }
+
+    @Test
+    void chunkKeepsOneNewestRowPerSkuId() {
+        Sku newer = sku(1, 3);
+        Sku older = sku(1, 2);
+        Sku other = sku(2, 1);
+        Sku laterTie = sku(2, 1);
+
+        assertThat(SkuRepository.newestPerId(new Sku[]{newer, other, older, laterTie}, 0, 4))
+                .containsExactly(newer, laterTie);
+        assertThat(SkuRepository.newestPerId(new Sku[]{newer, other, older}, 1, 3)).containsExactly(other, older);
+    }
+
+    @Test
+    void rejectsUnexpectedInfo() {
+        assertThatThrownBy(() -> SkuRepository.upsertResult(3, 3, "OK"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Sku sku(long skuId, int lastUpdatedSecond) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, lastUpdatedSecond, 0, ZoneOffset.UTC));
+        return sku;
+    }
+}
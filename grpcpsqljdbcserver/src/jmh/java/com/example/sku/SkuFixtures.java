@@ -0,0 +1,119 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.google.protobuf.Timestamp;
+import com.google.type.Money;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados sintéticos e determinísticos para os benchmarks, no formato que o cliente envia e o banco devolve.
+ */
+final class SkuFixtures {
+
+    // 2026-01-01T00:00:00Z
+    private static final long BASE_EPOCH_SECONDS = 1_767_225_600L;
+    private static final Sku.AvailabilityType[] AVAILABILITY = {
+            Sku.AvailabilityType.READY_TO_SHIP, Sku.AvailabilityType.MADE_TO_ORDER, Sku.AvailabilityType.OPEN_BOX,
+            Sku.AvailabilityType.USED, Sku.AvailabilityType.REFURBISHED
+    };
+
+    private SkuFixtures() {
+    }
+
+    static long skuId(int i) {
+        return 1_000_000L + i;
+    }
+
+    static long warehouseId(int i) {
+        return 1 + i % 32;
+    }
+
+    static long itemId(int i) {
+        return 500_000L + i / 4;
+    }
+
+    static int amount(int i) {
+        return i % 1000;
+    }
+
+    static Sku.AvailabilityType availability(int i) {
+        return AVAILABILITY[i % AVAILABILITY.length];
+    }
+
+    static long priceNanos(int i) {
+        return (10L + i % 5000) * MoneyNanos.NANOS_PER_UNIT + (i % 100) * 10_000_000L;
+    }
+
+    static java.sql.Timestamp lastUpdated(int i) {
+        java.sql.Timestamp timestamp = new java.sql.Timestamp((BASE_EPOCH_SECONDS + i) * 1000L);
+        timestamp.setNanos((i % 1000) * 1000);
+        return timestamp;
+    }
+
+    static Sku sku(int i) {
+        long priceNanos = priceNanos(i);
+        java.sql.Timestamp lastUpdated = lastUpdated(i);
+        return Sku.newBuilder()
+                .setSkuId(skuId(i))
+                .setWarehouseId(warehouseId(i))
+                .setItemId(itemId(i))
+                .setAmount(amount(i))
+                .setCountryCode("BR")
+                .setAvailabilityType(availability(i))
+                .setBasePrice(Money.newBuilder()
+                        .setCurrencyCode("BRL")
+                        .setUnits(priceNanos / MoneyNanos.NANOS_PER_UNIT)
+                        .setNanos((int) (priceNanos % MoneyNanos.NANOS_PER_UNIT)))
+                .setLastUpdated(Timestamp.newBuilder()
+                        .setSeconds(lastUpdated.getTime() / 1000)
+                        .setNanos(lastUpdated.getNanos()))
+                .build();
+    }
+
+    static List<Sku> skus(int size) {
+        List<Sku> skus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            skus.add(sku(i));
+        }
+        return skus;
+    }
+
+    /**
+     * ResultSet em memória com as colunas de {@link SkuProtoRowMapper#COLUMNS}, na mesma ordem.
+     */
+    static CachedRowSet resultSet(int size) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(9);
+        int[] types = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+                Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+        for (int column = 1; column <= types.length; column++) {
+            metaData.setColumnType(column, types[column - 1]);
+        }
+
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        rowSet.moveToInsertRow();
+        for (int i = 0; i < size; i++) {
+            rowSet.updateLong(1, skuId(i));
+            rowSet.updateLong(2, warehouseId(i));
+            rowSet.updateLong(3, itemId(i));
+            rowSet.updateInt(4, amount(i));
+            rowSet.updateString(5, "BR");
+            rowSet.updateString(6, availability(i).name());
+            rowSet.updateLong(7, priceNanos(i));
+            rowSet.updateString(8, "BRL");
+            rowSet.updateTimestamp(9, lastUpdated(i));
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões por linha do caminho de escrita (proto → entidade) e de leitura (ResultSet → proto).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkuMappingBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    private List<Sku> protos;
+    private CachedRowSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        protos = SkuFixtures.skus(size);
+        resultSet = SkuFixtures.resultSet(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        resultSet.close();
+    }
+
+    @Benchmark
+    public void protoToEntity(Blackhole bh) {
+        for (Sku proto : protos) {
+            bh.consume(GrpcSkuService.mapProtoToEntity(proto));
+        }
+    }
+
+    @Benchmark
+    public void rowMapper(Blackhole bh) throws SQLException {
+        resultSet.beforeFirst();
+        int rowNum = 0;
+        while (resultSet.next()) {
+            bh.consume(SkuProtoRowMapper.INSTANCE.mapRow(resultSet, rowNum++));
+        }
+    }
+}
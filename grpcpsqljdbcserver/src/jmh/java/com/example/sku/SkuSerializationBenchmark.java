@@ -0,0 +1,101 @@
+package com.example.sku;
+
+import com.example.sku.grpc.ImportMode;
+import com.example.sku.grpc.Sku;
+import com.example.sku.grpc.SkuListResponse;
+import com.example.sku.grpc.SkuRequest;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.google.type.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do SkuRequest como o cliente faz e serialização/parse das mensagens que trafegam em lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkuSerializationBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    private SkuRequest request;
+    private byte[] requestBytes;
+    private SkuListResponse listResponse;
+    private byte[] listResponseBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Sku> skus = SkuFixtures.skus(size);
+        request = SkuRequest.newBuilder().addAllSkus(skus).build();
+        requestBytes = request.toByteArray();
+        listResponse = SkuListResponse.newBuilder().addAllSkus(skus).build();
+        listResponseBytes = listResponse.toByteArray();
+    }
+
+    // Mesmo roteiro do Client.sendBatch: um builder por sku a partir das colunas lidas do MySQL
+    @Benchmark
+    public SkuRequest buildRequest() {
+        SkuRequest.Builder builder = SkuRequest.newBuilder().setMode(ImportMode.IMPORT_MODE_AUTO);
+        for (int i = 0; i < size; i++) {
+            long priceNanos = SkuFixtures.priceNanos(i);
+            java.sql.Timestamp alterado = SkuFixtures.lastUpdated(i);
+            Sku.Builder skuBuilder = Sku.newBuilder()
+                    .setSkuId(SkuFixtures.skuId(i))
+                    .setWarehouseId(SkuFixtures.warehouseId(i))
+                    .setItemId(SkuFixtures.itemId(i))
+                    .setAmount(SkuFixtures.amount(i))
+                    .setCountryCode("BR")
+                    .setAvailabilityType(Sku.AvailabilityType.valueOf(SkuFixtures.availability(i).name()));
+            skuBuilder.setBasePrice(Money.newBuilder()
+                    .setCurrencyCode("BRL")
+                    .setUnits(priceNanos / 1_000_000_000L)
+                    .setNanos((int) (priceNanos % 1_000_000_000L))
+                    .build());
+            skuBuilder.setLastUpdated(Timestamp.newBuilder()
+                    .setSeconds(alterado.getTime() / 1000)
+                    .setNanos(alterado.getNanos())
+                    .build());
+            builder.addSkus(skuBuilder.build());
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() {
+        return request.toByteArray();
+    }
+
+    @Benchmark
+    public SkuRequest parseRequest() throws InvalidProtocolBufferException {
+        return SkuRequest.parseFrom(requestBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeListResponse() {
+        return listResponse.toByteArray();
+    }
+
+    @Benchmark
+    public SkuListResponse parseListResponse() throws InvalidProtocolBufferException {
+        return SkuListResponse.parseFrom(listResponseBytes);
+    }
+}
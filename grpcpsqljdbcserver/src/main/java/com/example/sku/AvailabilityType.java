@@ -1,10 +0,0 @@
-package com.example.sku;
-
-public enum AvailabilityType {
-
-    READY_TO_SHIP,
-    MADE_TO_ORDER,
-    OPEN_BOX,
-    USED,
-    REFURBISHED
-}
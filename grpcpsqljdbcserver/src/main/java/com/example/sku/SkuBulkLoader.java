@@ -0,0 +1,172 @@
+package com.example.sku;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+
+/**
+ * Carga em massa via {@code COPY ... FROM STDIN (FORMAT binary)}.
+ * Os skus vão para uma tabela de staging e um único {@code INSERT ... ON CONFLICT} faz o merge em {@code skus}.
+ */
+@Repository
+public class SkuBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuBulkLoader.class);
+
+    private static final byte[] COPY_SIGNATURE = "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final short STAGING_COLUMNS = 10;
+    // 2000-01-01T00:00:00Z, época dos timestamps binários do Postgres
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+
+    // Tabela temporária: privada da sessão e sem WAL, é criada uma vez por conexão do pool e esvaziada no commit
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE IF NOT EXISTS skus_staging (
+                    seq            integer,
+                    sku_id         bigint,
+                    warehouse_id   bigint,
+                    item_id        bigint,
+                    amount         integer,
+                    country_code   text,
+                    availability   text,
+                    price_nanos    bigint,
+                    currency_code  text,
+                    last_updated   timestamptz
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_SQL = """
+            COPY skus_staging (seq, sku_id, warehouse_id, item_id, amount, country_code, availability, price_nanos, currency_code, last_updated)
+            FROM STDIN (FORMAT binary)
+            """;
+
+    // DISTINCT ON mantém a ocorrência de cada sku_id que o upsert linha a linha deixaria gravada: a de maior
+    // last_updated, com o nulo como a mais antiga, e no empate a última
+    private static final String MERGE_SQL = """
+            WITH merged AS (
+                INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability, price_nanos, currency_code, last_updated)
+                SELECT DISTINCT ON (sku_id)
+                       sku_id, warehouse_id, item_id, amount, country_code, availability::availability_type, price_nanos, currency_code, last_updated
+                  FROM skus_staging
+                 ORDER BY sku_id, last_updated DESC NULLS LAST, seq DESC
+                ON CONFLICT (sku_id) DO UPDATE SET
+                        warehouse_id   = EXCLUDED.warehouse_id,
+                        amount         = EXCLUDED.amount,
+                        availability   = EXCLUDED.availability,
+                        price_nanos    = EXCLUDED.price_nanos,
+                        currency_code  = EXCLUDED.currency_code,
+                        last_updated   = EXCLUDED.last_updated
+                WHERE EXCLUDED.last_updated >= skus.last_updated
+                  AND (skus.warehouse_id, skus.amount, skus.availability, skus.price_nanos, skus.currency_code)
+                      IS DISTINCT FROM (EXCLUDED.warehouse_id, EXCLUDED.amount, EXCLUDED.availability,
+                                        EXCLUDED.price_nanos, EXCLUDED.currency_code)
+                RETURNING (xmax = 0) AS inserted
+            )
+            SELECT count(*) FILTER (WHERE inserted), count(*), (SELECT count(DISTINCT sku_id) FROM skus_staging)
+              FROM merged
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SkuBulkLoader(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public SkuWriteResult load(Sku... skus) {
+        return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<SkuWriteResult>) con -> {
+            try (Statement stmt = con.createStatement()) {
+                stmt.execute(CREATE_STAGING_SQL);
+            }
+            copy(con, skus);
+            try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery(MERGE_SQL)) {
+                rs.next();
+                int inserted = rs.getInt(1);
+                int merged = rs.getInt(2);
+                int distinct = rs.getInt(3);
+                logger.debug("COPY load of {} skus merged {} rows: {} inserted, {} skipped",
+                        skus.length, merged, inserted, distinct - merged);
+                return new SkuWriteResult(distinct, inserted, merged - inserted, distinct - merged, 1);
+            }
+        }));
+    }
+
+    private void copy(Connection con, Sku[] skus) throws SQLException {
+        PGConnection pgConnection = con.unwrap(PGConnection.class);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new PGCopyOutputStream(pgConnection, COPY_SQL), 64 * 1024))) {
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // tamanho da extensão do cabeçalho
+            int seq = 0;
+            for (Sku sku : skus) {
+                out.writeShort(STAGING_COLUMNS);
+                writeInt(out, seq++);
+                writeLong(out, sku.getId());
+                writeLong(out, sku.getWarehouseId());
+                writeLong(out, sku.getItemId());
+                writeInt(out, sku.getAmount());
+                writeText(out, sku.getCountryCode());
+                writeText(out, sku.getAvailabilityType().name());
+                writeLong(out, sku.getPriceNanos());
+                writeText(out, sku.getCurrencyCode());
+                writeTimestamp(out, sku.getLastUpdated() != null ? sku.getLastUpdated().toInstant() : null);
+            }
+            out.writeShort(-1); // trailer
+        } catch (IOException e) {
+            throw new SQLException("COPY into skus_staging failed", e);
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(4);
+        out.writeInt(value);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(8);
+        out.writeLong(value);
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, Instant value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(8);
+        out.writeLong((value.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1_000_000L + value.getNano() / 1_000);
+    }
+}
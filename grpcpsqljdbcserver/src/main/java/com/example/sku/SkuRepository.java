@@ -1,23 +1,56 @@
 package com.example.sku;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class SkuRepository {
 
+    private static final Logger logger = LoggerFactory.getLogger(SkuRepository.class);
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    // Consultas de lista; o SkuSchema confere o plano delas na subida
+    static final String BY_WAREHOUSE = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE warehouse_id = ?";
+    static final String BY_ITEM = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE item_id = ?";
+    static final String PAGE_BY_WAREHOUSE = BY_WAREHOUSE + " AND sku_id > ? ORDER BY sku_id LIMIT ?";
+    static final String PAGE_BY_ITEM = BY_ITEM + " AND sku_id > ? ORDER BY sku_id LIMIT ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final int fetchSize;
+    private final String fullChunkUpsertSql;
 
-    public SkuRepository(JdbcTemplate jdbcTemplate) {
+    public SkuRepository(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${sku.repository.batch-size:500}") int batchSize,
+                         @Value("${sku.repository.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.fullChunkUpsertSql = buildUpsertSql(batchSize);
     }
 
     private final RowMapper<Sku> skuRowMapper = new RowMapper<Sku>() {
@@ -29,8 +62,8 @@ public class SkuRepository {
             sku.setItemId(rs.getLong("item_id"));
             sku.setAmount(rs.getInt("amount"));
             sku.setCountryCode(rs.getString("country_code"));
-            sku.setAvailabilityType(AvailabilityType.valueOf(rs.getString("availability_type")));
-            sku.setPriceAmount(rs.getBigDecimal("price_amount"));
+            sku.setAvailabilityType(AvailabilityType.valueOf(rs.getString("availability")));
+            sku.setPriceNanos(rs.getLong("price_nanos"));
             sku.setCurrencyCode(rs.getString("currency_code"));
             
             Timestamp lastUpdated = rs.getTimestamp("last_updated");
@@ -46,53 +79,149 @@ public class SkuRepository {
         return jdbcTemplate.query(sql, skuRowMapper);
     }
 
-    public Optional<Sku> findById(Long id) {
-        String sql = "SELECT * FROM skus WHERE sku_id = ?";
-        List<Sku> skus = jdbcTemplate.query(sql, skuRowMapper, id);
+    public Optional<com.example.sku.grpc.Sku> findById(Long id) {
+        String sql = "SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE sku_id = ?";
+        List<com.example.sku.grpc.Sku> skus = jdbcTemplate.query(sql, SkuProtoRowMapper.INSTANCE, id);
         return skus.stream().findFirst();
     }
 
-    public List<Sku> findByWarehouseId(Long warehouseId) {
-        String sql = "SELECT * FROM skus WHERE warehouse_id = ?";
-        return jdbcTemplate.query(sql, skuRowMapper, warehouseId);
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<com.example.sku.grpc.Sku> skus = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += ID_CHUNK_SIZE) {
+            Long[] chunk = idList.subList(from, Math.min(from + ID_CHUNK_SIZE, idList.size())).toArray(new Long[0]);
+            // Um único parâmetro array: o mesmo statement preparado serve para qualquer quantidade de ids
+            skus.addAll(jdbcTemplate.query("SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus WHERE sku_id = ANY(?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", chunk)),
+                    SkuProtoRowMapper.INSTANCE));
+        }
+        return skus;
+    }
+
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(Long warehouseId) {
+        return jdbcTemplate.query(BY_WAREHOUSE, SkuProtoRowMapper.INSTANCE, warehouseId);
+    }
+
+    public List<com.example.sku.grpc.Sku> findByItemId(Long itemId) {
+        return jdbcTemplate.query(BY_ITEM, SkuProtoRowMapper.INSTANCE, itemId);
+    }
+
+    // Paginação por keyset: usa o índice (warehouse_id, sku_id) e não degrada nas páginas mais distantes
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(Long warehouseId, long afterSkuId, int limit) {
+        return jdbcTemplate.query(PAGE_BY_WAREHOUSE, SkuProtoRowMapper.INSTANCE, warehouseId, afterSkuId, limit);
+    }
+
+    public List<com.example.sku.grpc.Sku> findByItemId(Long itemId, long afterSkuId, int limit) {
+        return jdbcTemplate.query(PAGE_BY_ITEM, SkuProtoRowMapper.INSTANCE, itemId, afterSkuId, limit);
+    }
+
+    public void streamByWarehouseId(Long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(BY_WAREHOUSE, consumer, warehouseId);
+    }
+
+    public void streamByItemId(Long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream(BY_ITEM, consumer, itemId);
     }
 
-    public List<Sku> findByItemId(Long itemId) {
-        String sql = "SELECT * FROM skus WHERE item_id = ?";
-        return jdbcTemplate.query(sql, skuRowMapper, itemId);
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        stream("SELECT " + SkuProtoRowMapper.COLUMNS + " FROM skus", consumer);
     }
 
-    public int save(Sku... skus) {
-        String sql = """
-                INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability, price_amount, currency_code, last_updated)
-                VALUES (?, ?, ?, ?, ?, ?::availability_type, ?, ?, ?)
+    // O driver do Postgres só usa cursor (fetch size) com autocommit desligado, por isso a transação
+    private void stream(String sql, Consumer<com.example.sku.grpc.Sku> consumer, long... params) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                ps.setLong(i + 1, params[i]);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(SkuProtoRowMapper.INSTANCE.mapRow(rs, 0))));
+    }
+
+    public SkuWriteResult save(Sku... skus) {
+        skus = lastVersionPerId(skus);
+        SkuWriteResult result = SkuWriteResult.EMPTY;
+        for (int from = 0; from < skus.length; from += batchSize) {
+            int to = Math.min(from + batchSize, skus.length);
+            result = result.plus(saveChunk(skus, from, to));
+        }
+        return result;
+    }
+
+    // Um único INSERT multi-linha por bloco: uma ida ao banco e uma transação (autocommit) por bloco
+    private SkuWriteResult saveChunk(Sku[] skus, int from, int to) {
+        int rows = to - from;
+        // xmax = 0 só é verdadeiro para as linhas recém-inseridas pelo INSERT ... ON CONFLICT.
+        // Linhas barradas pelo WHERE do DO UPDATE (iguais ou mais antigas) não voltam no RETURNING nem são regravadas.
+        List<Boolean> insertedFlags = jdbcTemplate.query(upsertSql(rows), ps -> {
+            int index = 1;
+            for (int i = from; i < to; i++) {
+                Sku sku = skus[i];
+                ps.setObject(index++, sku.getId());
+                ps.setObject(index++, sku.getWarehouseId());
+                ps.setObject(index++, sku.getItemId());
+                ps.setObject(index++, sku.getAmount());
+                ps.setString(index++, sku.getCountryCode());
+                ps.setString(index++, sku.getAvailabilityType().name());
+                ps.setObject(index++, sku.getPriceNanos());
+                ps.setString(index++, sku.getCurrencyCode());
+                ps.setTimestamp(index++, sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null);
+            }
+        }, (rs, rowNum) -> rs.getBoolean(1));
+        int inserted = 0;
+        for (Boolean flag : insertedFlags) {
+            if (flag) {
+                inserted++;
+            }
+        }
+        SkuWriteResult result = new SkuWriteResult(rows, inserted, insertedFlags.size() - inserted,
+                rows - insertedFlags.size(), 1);
+        logger.debug("Upsert chunk of {} skus: {} inserted, {} updated, {} skipped",
+                rows, result.inserted(), result.updated(), result.skipped());
+        return result;
+    }
+
+    // ON CONFLICT não aceita o mesmo sku_id duas vezes no mesmo statement: mantém a versão que o upsert linha a
+    // linha deixaria gravada, a de maior last_updated (no empate, a última)
+    private static Sku[] lastVersionPerId(Sku[] skus) {
+        Map<Long, Sku> byId = new LinkedHashMap<>(skus.length * 2);
+        for (Sku sku : skus) {
+            byId.merge(sku.getId(), sku, (kept, next) -> SkuImportPartitioner.supersedes(next, kept) ? next : kept);
+        }
+        return byId.size() == skus.length ? skus : byId.values().toArray(new Sku[0]);
+    }
+
+    private String upsertSql(int rows) {
+        return rows == batchSize ? fullChunkUpsertSql : buildUpsertSql(rows);
+    }
+
+    private static String buildUpsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(160 + rows * 40);
+        sql.append("INSERT INTO skus (sku_id, warehouse_id, item_id, amount, country_code, availability, price_nanos, currency_code, last_updated) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ",").append("(?, ?, ?, ?, ?, ?::availability_type, ?, ?, ?)");
+        }
+        sql.append("""
+
                 ON CONFLICT (sku_id) DO UPDATE SET
                         warehouse_id   = EXCLUDED.warehouse_id,
                         amount         = EXCLUDED.amount,
                         availability   = EXCLUDED.availability,
-                        price_amount   = EXCLUDED.price_amount,
+                        price_nanos    = EXCLUDED.price_nanos,
                         currency_code  = EXCLUDED.currency_code,
-                        last_updated   = EXCLUDED.last_updated;
-                """;
-        int result = 0;
-        for (Sku sku : skus) {
-            result += jdbcTemplate.update(sql,
-                    sku.getId(),
-                    sku.getWarehouseId(),
-                    sku.getItemId(),
-                    sku.getAmount(),
-                    sku.getCountryCode(),
-                    sku.getAvailabilityType().name(),
-                    sku.getPriceAmount(),
-                    sku.getCurrencyCode(),
-                    sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null
-            );
-        }
-        return result;
+                        last_updated   = EXCLUDED.last_updated
+                WHERE EXCLUDED.last_updated >= skus.last_updated
+                  AND (skus.warehouse_id, skus.amount, skus.availability, skus.price_nanos, skus.currency_code)
+                      IS DISTINCT FROM (EXCLUDED.warehouse_id, EXCLUDED.amount, EXCLUDED.availability,
+                                        EXCLUDED.price_nanos, EXCLUDED.currency_code)
+                RETURNING (xmax = 0)
+                """);
+        return sql.toString();
     }
 
     public int update(Sku sku) {
-        String sql = "UPDATE skus SET warehouse_id = ?, item_id = ?, amount = ?, country_code = ?, availability = ?::availability_type, price_amount = ?, currency_code = ?, last_updated = ? " +
+        String sql = "UPDATE skus SET warehouse_id = ?, item_id = ?, amount = ?, country_code = ?, availability = ?::availability_type, price_nanos = ?, currency_code = ?, last_updated = ? " +
                 "WHERE sku_id = ?";
         return jdbcTemplate.update(sql,
                 sku.getWarehouseId(),
@@ -100,7 +229,7 @@ public class SkuRepository {
                 sku.getAmount(),
                 sku.getCountryCode(),
                 sku.getAvailabilityType().name(),
-                sku.getPriceAmount(),
+                sku.getPriceNanos(),
                 sku.getCurrencyCode(),
                 sku.getLastUpdated() != null ? Timestamp.from(sku.getLastUpdated().toInstant()) : null,
                 sku.getId()
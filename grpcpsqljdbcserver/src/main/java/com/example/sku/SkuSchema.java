@@ -0,0 +1,120 @@
+package com.example.sku;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cria o tipo, a tabela e os índices dos skus se faltarem ({@code sku.schema.manage}) e confere com EXPLAIN
+ * que as consultas de lista do {@link SkuRepository} usam índice. Uma consulta que só tem varredura completa
+ * gera um aviso no log ou, com {@code sku.schema.on-full-scan=refuse}, deixa a aplicação fora de prontidão
+ * (readiness). Roda na criação do bean, antes do servidor gRPC aceitar chamadas.
+ * <p>
+ * Os índices de lista são (chave, sku_id) com as demais colunas no INCLUDE: a consulta e a página por keyset
+ * saem do índice (index-only scan), sem ler a tabela. Os antigos {@code idx_skus_warehouse} e {@code idx_skus_item}
+ * são removidos depois que eles existem.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "jdbc", matchIfMissing = true)
+public class SkuSchema implements ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuSchema.class);
+
+    private static final List<String> DDL = List.of("""
+            DO $$ BEGIN
+                CREATE TYPE availability_type AS ENUM ('READY_TO_SHIP', 'MADE_TO_ORDER', 'OPEN_BOX', 'USED', 'REFURBISHED');
+            EXCEPTION WHEN duplicate_object THEN NULL;
+            END $$""", """
+            CREATE TABLE IF NOT EXISTS skus (
+                sku_id        BIGINT PRIMARY KEY,
+                warehouse_id  BIGINT,
+                item_id       BIGINT NOT NULL,
+                amount        INTEGER NOT NULL DEFAULT 0,
+                country_code  CHAR(3) NOT NULL,
+                availability  availability_type NOT NULL DEFAULT 'READY_TO_SHIP',
+                price_nanos   BIGINT NOT NULL,
+                currency_code VARCHAR(3) NOT NULL DEFAULT 'USD',
+                last_updated  TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""", """
+            CREATE INDEX IF NOT EXISTS idx_skus_warehouse_sku ON skus (warehouse_id, sku_id)
+                INCLUDE (item_id, amount, country_code, availability, price_nanos, currency_code, last_updated)""", """
+            CREATE INDEX IF NOT EXISTS idx_skus_item_sku ON skus (item_id, sku_id)
+                INCLUDE (warehouse_id, amount, country_code, availability, price_nanos, currency_code, last_updated)""",
+            // Índices de coluna única do script original: os de cima cobrem as mesmas consultas e só custam na escrita
+            "DROP INDEX IF EXISTS idx_skus_warehouse",
+            "DROP INDEX IF EXISTS idx_skus_item");
+
+    private static final Map<String, String> HOT_QUERIES = Map.of(
+            "byWarehouse", SkuRepository.BY_WAREHOUSE,
+            "byItem", SkuRepository.BY_ITEM,
+            "pageByWarehouse", SkuRepository.PAGE_BY_WAREHOUSE,
+            "pageByItem", SkuRepository.PAGE_BY_ITEM);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher publisher;
+    private final boolean refuseOnFullScan;
+    private final List<String> fullScans = new ArrayList<>();
+
+    public SkuSchema(JdbcTemplate jdbcTemplate,
+                     PlatformTransactionManager transactionManager,
+                     ApplicationEventPublisher publisher,
+                     @Value("${sku.schema.manage:true}") boolean manage,
+                     @Value("${sku.schema.on-full-scan:warn}") String onFullScan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        this.refuseOnFullScan = switch (onFullScan) {
+            case "warn" -> false;
+            case "refuse" -> true;
+            default -> throw new IllegalArgumentException("sku.schema.on-full-scan must be warn or refuse, got " + onFullScan);
+        };
+        try {
+            if (manage) {
+                DDL.forEach(jdbcTemplate::execute);
+            }
+            HOT_QUERIES.forEach(this::checkPlan);
+        } catch (RuntimeException e) {
+            // Banco fora do ar na subida: as chamadas falham até ele voltar, e não há plano a conferir
+            logger.warn("Could not verify the sku schema: {}", e.getMessage());
+        }
+    }
+
+    // O Spring Boot publica ACCEPTING_TRAFFIC ao fim da subida; com refuse a aplicação volta para REFUSING_TRAFFIC
+    @Override
+    public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (refuseOnFullScan && !fullScans.isEmpty() && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            logger.error("Refusing readiness, sku queries without a usable index: {}", fullScans);
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    // Com enable_seqscan desligado o planejador só escolhe Seq Scan quando não há índice que sirva;
+    // com ele ligado uma tabela pequena ou vazia daria Seq Scan mesmo com o índice certo
+    private void checkPlan(String name, String sql) {
+        List<String> plan = transaction.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            Object[] params = sql.endsWith("LIMIT ?") ? new Object[]{1L, 0L, 100} : new Object[]{1L};
+            return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, params);
+        });
+        if (plan.stream().anyMatch(line -> line.contains("Seq Scan on skus"))) {
+            fullScans.add(name);
+            logger.warn("Sku query {} does a full table scan:\n{}", name, String.join("\n", plan));
+        } else {
+            logger.debug("Sku query {} plan:\n{}", name, String.join("\n", plan));
+        }
+    }
+}
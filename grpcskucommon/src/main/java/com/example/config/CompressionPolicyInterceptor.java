@@ -0,0 +1,74 @@
+package com.example.config;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Comprime as respostas dos métodos em {@code sku.grpc.compression.methods} com o primeiro encoding de
+ * {@code sku.grpc.compression.encodings} que o cliente anuncia em {@code grpc-accept-encoding}.
+ * Respostas pequenas como a do GetById ficam de fora, e mensagens abaixo de {@code sku.grpc.compression.min-bytes}
+ * seguem sem compressão mesmo nos métodos da lista: o custo de CPU não compensa.
+ */
+@Component
+@GlobalServerInterceptor
+public class CompressionPolicyInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> ACCEPT_ENCODING =
+            Metadata.Key.of("grpc-accept-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Set<String> methods;
+    private final String[] encodings;
+    private final int minBytes;
+
+    public CompressionPolicyInterceptor(
+            @Value("${sku.grpc.compression.methods:GetByIds,GetByWarehouse,GetByItem,StreamByWarehouse,StreamByItem,WatchSkus}") String[] methods,
+            @Value("${sku.grpc.compression.encodings:zstd,gzip}") String[] encodings,
+            @Value("${sku.grpc.compression.min-bytes:1024}") int minBytes) {
+        this.methods = Set.of(methods);
+        this.encodings = encodings;
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!methods.contains(call.getMethodDescriptor().getBareMethodName())) {
+            return next.startCall(call, headers);
+        }
+        String encoding = negotiate(headers.get(ACCEPT_ENCODING));
+        if (encoding == null) {
+            return next.startCall(call, headers);
+        }
+        call.setCompression(encoding);
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(RespT message) {
+                // O tamanho fica guardado na mensagem e é reaproveitado na serialização
+                setMessageCompression(((MessageLite) message).getSerializedSize() >= minBytes);
+                super.sendMessage(message);
+            }
+        }, headers);
+    }
+
+    private String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Set<String> accepted = Set.of(acceptEncoding.replace(" ", "").split(","));
+        for (String encoding : encodings) {
+            if (accepted.contains(encoding)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor do servidor gRPC que roda cada tarefa numa virtual thread.
+ * Um semáforo limita quantas tarefas executam ao mesmo tempo ao tamanho do pool de conexões do banco:
+ * as demais esperam estacionadas (sem ocupar thread de plataforma) em vez de enfileirar no pool de conexões.
+ */
+public class DbPermitExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService virtualThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("grpc-vt-", 0).factory());
+    private final Semaphore permits;
+    private final int maxPermits;
+
+    public DbPermitExecutor(int maxPermits) {
+        if (maxPermits <= 0) {
+            throw new IllegalArgumentException("sku.grpc.db-permits must be positive: " + maxPermits);
+        }
+        this.maxPermits = maxPermits;
+        this.permits = new Semaphore(maxPermits, true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        virtualThreads.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int maxPermits() {
+        return maxPermits;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /** Tarefas esperando permissão; crescendo com o banco ocioso indica {@code sku.grpc.db-permits} baixo. */
+    public int waitingTasks() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        virtualThreads.shutdown();
+        if (!virtualThreads.awaitTermination(30, TimeUnit.SECONDS)) {
+            virtualThreads.shutdownNow();
+        }
+    }
+}
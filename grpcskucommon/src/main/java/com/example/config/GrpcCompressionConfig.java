@@ -0,0 +1,45 @@
+package com.example.config;
+
+import com.example.metrics.MeteredCodec;
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra gzip e zstd no servidor, medidos pelo {@link MeteredCodec}; o Spring gRPC aplica os registros
+ * ao ServerBuilder. A compressão das requisições é escolhida pelo cliente; a das respostas segue o
+ * {@link CompressionPolicyInterceptor}.
+ */
+@Configuration
+public class GrpcCompressionConfig {
+
+    @Bean
+    public Codec gzipCodec(MeterRegistry registry) {
+        return new MeteredCodec(new Codec.Gzip(), registry);
+    }
+
+    @Bean
+    public Codec zstdCodec(MeterRegistry registry, @Value("${sku.grpc.compression.zstd-level:3}") int zstdLevel) {
+        return new MeteredCodec(new ZstdCodec(zstdLevel), registry);
+    }
+
+    @Bean
+    public CompressorRegistry compressorRegistry(Codec gzipCodec, Codec zstdCodec) {
+        CompressorRegistry compressors = CompressorRegistry.newEmptyInstance();
+        compressors.register(gzipCodec);
+        compressors.register(zstdCodec);
+        return compressors;
+    }
+
+    @Bean
+    public DecompressorRegistry decompressorRegistry(Codec gzipCodec, Codec zstdCodec) {
+        return DecompressorRegistry.emptyInstance()
+                .with(Codec.Identity.NONE, false)
+                .with(gzipCodec, true)
+                .with(zstdCodec, true);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.grpc.server.autoconfigure.GrpcServerExecutorProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * {@code sku.grpc.executor=virtual} troca o executor padrão do gRPC (pool de threads de plataforma)
+ * por uma virtual thread por chamada, limitada por {@code sku.grpc.db-permits}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sku.grpc.executor", havingValue = "virtual")
+public class GrpcExecutorConfig {
+
+    @Bean
+    public DbPermitExecutor dbPermitExecutor(@Value("${sku.grpc.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int dbPermits) {
+        return new DbPermitExecutor(dbPermits);
+    }
+
+    @Bean
+    public GrpcServerExecutorProvider grpcServerExecutorProvider(DbPermitExecutor dbPermitExecutor) {
+        return () -> dbPermitExecutor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sku.grpc.pinning-diagnostics", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${sku.grpc.pinning-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold);
+    }
+}
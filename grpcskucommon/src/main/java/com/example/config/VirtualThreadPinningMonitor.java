@@ -0,0 +1,52 @@
+package com.example.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Registra no log as virtual threads que ficaram presas (pinned) à thread carrier por mais que o limite,
+ * a partir do evento JFR {@code jdk.VirtualThreadPinned}. Chamadas nativas e locks dentro de drivers
+ * são as causas comuns; enquanto dura o pinning a carrier não atende outras chamadas.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOGGED_FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::log);
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started (threshold {})", threshold);
+    }
+
+    private void log(RecordedEvent event) {
+        StringBuilder stack = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(frames.size(), MAX_LOGGED_FRAMES); i++) {
+                RecordedFrame frame = frames.get(i);
+                stack.append("\n\tat ").append(frame.getMethod().getType().getName())
+                        .append('.').append(frame.getMethod().getName())
+                        .append(':').append(frame.getLineNumber());
+            }
+        }
+        logger.warn("Virtual thread {} pinned for {} ms{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "?",
+                event.getDuration().toMillis(), stack);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.config;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import io.grpc.Codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec {@code zstd} para o gRPC, que só traz gzip. O gRPC abre um stream por mensagem, então os buffers
+ * internos do zstd vêm de um pool em vez de serem alocados a cada chamada.
+ */
+public class ZstdCodec implements Codec {
+
+    public static final String ENCODING = "zstd";
+
+    private final int level;
+
+    public ZstdCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getMessageEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        return new ZstdOutputStream(os, RecyclingBufferPool.INSTANCE).setLevel(level);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        return new ZstdInputStream(is, RecyclingBufferPool.INSTANCE);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.metrics;
+
+/**
+ * Tempos acumulados de uma chamada gRPC, visíveis para a instrumentação dos repositórios
+ * pela thread que está executando o handler naquele momento.
+ */
+final class CallTimings {
+
+    private static final ThreadLocal<CallTimings> CURRENT = new ThreadLocal<>();
+
+    private long handlerNanos;
+    private long dbNanos;
+    private long serializationNanos;
+    private long serializationInDbNanos;
+    private int dbDepth;
+
+    static CallTimings current() {
+        return CURRENT.get();
+    }
+
+    /** Marca {@code timings} como a chamada da thread atual; devolve o valor anterior para {@link #restore}. */
+    static CallTimings bind(CallTimings timings) {
+        CallTimings previous = CURRENT.get();
+        CURRENT.set(timings);
+        return previous;
+    }
+
+    static void restore(CallTimings previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    void addHandler(long nanos) {
+        handlerNanos += nanos;
+    }
+
+    /** Devolve {@code true} se esta é a chamada de banco mais externa; só ela conta tempo. */
+    boolean enterDb() {
+        return dbDepth++ == 0;
+    }
+
+    void exitDb(boolean outermost, long nanos) {
+        dbDepth--;
+        if (outermost) {
+            dbNanos += nanos;
+        }
+    }
+
+    // Tempo de banco de outra thread (ver DbTime); dentro de uma chamada ao banco já está sendo contado
+    void addDb(long nanos) {
+        if (dbDepth == 0) {
+            dbNanos += nanos;
+        }
+    }
+
+    // Nas consultas em stream o consumer envia as respostas de dentro da chamada ao banco
+    void addSerialization(long nanos) {
+        serializationNanos += nanos;
+        if (dbDepth > 0) {
+            serializationInDbNanos += nanos;
+        }
+    }
+
+    long handlerNanos() {
+        return handlerNanos;
+    }
+
+    long dbNanos() {
+        return dbNanos - serializationInDbNanos;
+    }
+
+    long serializationNanos() {
+        return serializationNanos;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.metrics;
+
+import com.example.sku.InMemorySkuStore;
+import com.example.sku.SkuWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envolve os repositórios do motor (beans {@link Repository}) e o {@link InMemorySkuStore} para medir o tempo
+ * gasto no banco ({@code sku.db.time} por repositório e método) e contar as linhas gravadas
+ * ({@code sku.db.rows.written}; a taxa por segundo sai do {@code rate()} do Prometheus). O tempo também é somado
+ * à chamada gRPC em andamento, separando banco de mapeamento no {@link GrpcMetricsInterceptor}.
+ */
+@Component
+public class DbMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public DbMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = AopUtils.getTargetClass(bean);
+        if (!AnnotatedElementUtils.hasAnnotation(type, Repository.class) && !(bean instanceof InMemorySkuStore)) {
+            return bean;
+        }
+        DbTimingInterceptor interceptor = new DbTimingInterceptor(type.getSimpleName());
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private final class DbTimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+        DbTimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            CallTimings timings = CallTimings.current();
+            boolean outermost = timings != null && timings.enterDb();
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                countWrites(result);
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                timer(method).record(elapsed, TimeUnit.NANOSECONDS);
+                if (timings != null) {
+                    timings.exitDb(outermost, elapsed);
+                }
+            }
+        }
+
+        private Timer timer(Method method) {
+            return timers.computeIfAbsent(method, m -> Timer.builder("sku.db.time")
+                    .description("Tempo gasto no banco")
+                    .tag("repository", repository)
+                    .tag("operation", m.getName())
+                    .publishPercentileHistogram()
+                    .register(registry.getObject()));
+        }
+
+        private void countWrites(Object result) {
+            if (result instanceof SkuWriteResult writeResult) {
+                written("inserted", writeResult.inserted());
+                written("updated", writeResult.updated());
+                written("skipped", writeResult.skipped());
+            }
+        }
+
+        private void written(String result, int rows) {
+            Counter.builder("sku.db.rows.written")
+                    .description("Linhas gravadas no banco")
+                    .tag("result", result)
+                    .register(registry.getObject())
+                    .increment(rows);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.metrics;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Tempo de banco gasto fora da thread do handler: as partições do import gravam no pool do
+ * {@code SkuImportPartitioner} e o group commit na thread do {@code SkuWriteCoalescer}. Nessas threads o
+ * {@link DbMetricsPostProcessor} não encontra a chamada gRPC e, sem isto, o tempo cairia na fase mapping.
+ */
+public final class DbTime {
+
+    private DbTime() {
+    }
+
+    /**
+     * Conta como banco o tempo que a thread atual passa esperando {@code work}, que grava em outras threads.
+     * Vale o tempo de parede da espera, não a soma das partições paralelas.
+     */
+    public static <T> T awaiting(Supplier<T> work) {
+        CallTimings timings = CallTimings.current();
+        boolean outermost = timings != null && timings.enterDb();
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            if (timings != null) {
+                timings.exitDb(outermost, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Roda {@code work} com uma medição própria, para uma thread que trabalha por outras chamadas, e entrega o
+     * tempo de banco a {@code dbNanos} antes de devolver o resultado ou a exceção.
+     */
+    public static <T> T measure(Supplier<T> work, LongConsumer dbNanos) {
+        CallTimings timings = new CallTimings();
+        CallTimings previous = CallTimings.bind(timings);
+        try {
+            return work.get();
+        } finally {
+            CallTimings.restore(previous);
+            dbNanos.accept(timings.dbNanos());
+        }
+    }
+
+    /** Soma à chamada da thread atual o tempo de banco medido por {@link #measure} em outra thread. */
+    public static void add(long dbNanos) {
+        CallTimings timings = CallTimings.current();
+        if (timings != null) {
+            timings.addDb(dbNanos);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.metrics;
+
+import com.example.sku.grpc.Sku;
+import com.example.sku.grpc.SkuGetByIdsRequest;
+import com.example.sku.grpc.SkuRequest;
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas por RPC exportadas pelo Micrometer:
+ * <ul>
+ *   <li>{@code sku.grpc.server.calls}: latência total por método e status (histograma);</li>
+ *   <li>{@code sku.grpc.server.time}: a mesma chamada quebrada em {@code phase} = db, serialization,
+ *       mapping (resto do handler) e transport (espera por rede, executor e cliente);</li>
+ *   <li>{@code sku.grpc.server.request.size} / {@code response.size}: bytes por chamada;</li>
+ *   <li>{@code sku.grpc.server.request.skus}: tamanho do lote (ImportSkus, ImportSkusStream e GetByIds).</li>
+ * </ul>
+ */
+@Component
+@GlobalServerInterceptor
+public class GrpcMetricsInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry registry;
+
+    public GrpcMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        CallMetrics metrics = new CallMetrics(call.getMethodDescriptor().getBareMethodName());
+        ServerCall<ReqT, RespT> timedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(RespT message) {
+                long start = System.nanoTime();
+                super.sendMessage(message);
+                metrics.timings.addSerialization(System.nanoTime() - start);
+                metrics.responseBytes += ((MessageLite) message).getSerializedSize();
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                metrics.status = status;
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener = metrics.inHandler(() -> next.startCall(timedCall, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                metrics.requestBytes += ((MessageLite) message).getSerializedSize();
+                metrics.requestSkus += skuCount(message);
+                metrics.inHandler(() -> {
+                    super.onMessage(message);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onHalfClose() {
+                metrics.inHandler(() -> {
+                    super.onHalfClose();
+                    return null;
+                });
+            }
+
+            // StreamByWarehouse/StreamByItem leem as páginas do banco no onReady
+            @Override
+            public void onReady() {
+                metrics.inHandler(() -> {
+                    super.onReady();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    metrics.inHandler(() -> {
+                        super.onCancel();
+                        return null;
+                    });
+                } finally {
+                    record(metrics, Status.CANCELLED);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    record(metrics, metrics.status != null ? metrics.status : Status.OK);
+                }
+            }
+        };
+    }
+
+    private static int skuCount(Object message) {
+        return switch (message) {
+            case SkuRequest request -> request.getSkusCount();
+            case Sku sku -> 1;
+            case SkuGetByIdsRequest request -> request.getSkuIdsCount();
+            default -> 0;
+        };
+    }
+
+    private void record(CallMetrics metrics, Status status) {
+        if (metrics.recorded) {
+            return;
+        }
+        metrics.recorded = true;
+        long total = System.nanoTime() - metrics.start;
+        CallTimings timings = metrics.timings;
+        long db = timings.dbNanos();
+        long serialization = timings.serializationNanos();
+        long handler = timings.handlerNanos();
+
+        Timer.builder("sku.grpc.server.calls")
+                .description("Latência das chamadas gRPC")
+                .tag("method", metrics.method)
+                .tag("status", status.getCode().name())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(total, TimeUnit.NANOSECONDS);
+
+        phase(metrics.method, "db", db);
+        phase(metrics.method, "serialization", serialization);
+        phase(metrics.method, "mapping", Math.max(0, handler - db - serialization));
+        phase(metrics.method, "transport", Math.max(0, total - handler));
+
+        DistributionSummary.builder("sku.grpc.server.request.size")
+                .baseUnit("bytes")
+                .tag("method", metrics.method)
+                .register(registry)
+                .record(metrics.requestBytes);
+        DistributionSummary.builder("sku.grpc.server.response.size")
+                .baseUnit("bytes")
+                .tag("method", metrics.method)
+                .register(registry)
+                .record(metrics.responseBytes);
+        if (metrics.requestSkus > 0) {
+            DistributionSummary.builder("sku.grpc.server.request.skus")
+                    .description("Skus ou ids por chamada")
+                    .tag("method", metrics.method)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(metrics.requestSkus);
+        }
+    }
+
+    private void phase(String method, String phase, long nanos) {
+        Timer.builder("sku.grpc.server.time")
+                .tag("method", method)
+                .tag("phase", phase)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Os callbacks de uma mesma chamada são serializados pelo gRPC, então os campos não precisam de sincronização
+    private static final class CallMetrics {
+
+        final String method;
+        final long start = System.nanoTime();
+        final CallTimings timings = new CallTimings();
+        long requestBytes;
+        long responseBytes;
+        long requestSkus;
+        volatile Status status;
+        volatile boolean recorded;
+
+        CallMetrics(String method) {
+            this.method = method;
+        }
+
+        <T> T inHandler(java.util.function.Supplier<T> callback) {
+            CallTimings previous = CallTimings.bind(timings);
+            long start = System.nanoTime();
+            try {
+                return callback.get();
+            } catch (RuntimeException | Error e) {
+                // Exceção que escapa do handler: o gRPC fecha a chamada com UNKNOWN sem passar pelo close()
+                if (status == null) {
+                    status = Status.UNKNOWN;
+                }
+                throw e;
+            } finally {
+                timings.addHandler(System.nanoTime() - start);
+                CallTimings.restore(previous);
+            }
+        }
+    }
+}
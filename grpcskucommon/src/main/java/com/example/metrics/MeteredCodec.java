@@ -0,0 +1,157 @@
+package com.example.metrics;
+
+import io.grpc.Codec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Envolve um {@link Codec} contando bytes antes e depois da compressão e o tempo gasto nela:
+ * <ul>
+ *   <li>{@code sku.grpc.compression.bytes}: por {@code encoding}, {@code operation} (compress/decompress)
+ *       e {@code form} (uncompressed/compressed); a razão é compressed / uncompressed;</li>
+ *   <li>{@code sku.grpc.compression.time}: segundos de CPU por {@code encoding} e {@code operation}.</li>
+ * </ul>
+ * Os contadores são incrementados a cada leitura ou escrita porque o gRPC nem sempre fecha o stream de leitura.
+ */
+public class MeteredCodec implements Codec {
+
+    private final Codec delegate;
+    private final Direction compress;
+    private final Direction decompress;
+
+    public MeteredCodec(Codec delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.compress = new Direction(registry, delegate.getMessageEncoding(), "compress");
+        this.decompress = new Direction(registry, delegate.getMessageEncoding(), "decompress");
+    }
+
+    @Override
+    public String getMessageEncoding() {
+        return delegate.getMessageEncoding();
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        OutputStream compressing = delegate.compress(new FilterOutputStream(os) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                compress.compressed.increment(len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                compress.compressed.increment();
+            }
+        });
+        return new FilterOutputStream(compressing) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                out.write(b, off, len);
+                compress.time(start);
+                compress.uncompressed.increment(len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                long start = System.nanoTime();
+                out.write(b);
+                compress.time(start);
+                compress.uncompressed.increment();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // O fechamento descarrega o último bloco comprimido
+                long start = System.nanoTime();
+                super.close();
+                compress.time(start);
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        InputStream decompressing = delegate.decompress(new FilterInputStream(is) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = in.read(b, off, len);
+                if (read > 0) {
+                    decompress.compressed.increment(read);
+                }
+                return read;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = in.read();
+                if (read >= 0) {
+                    decompress.compressed.increment();
+                }
+                return read;
+            }
+        });
+        return new FilterInputStream(decompressing) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                int read = in.read(b, off, len);
+                decompress.time(start);
+                if (read > 0) {
+                    decompress.uncompressed.increment(read);
+                }
+                return read;
+            }
+
+            @Override
+            public int read() throws IOException {
+                long start = System.nanoTime();
+                int read = in.read();
+                decompress.time(start);
+                if (read >= 0) {
+                    decompress.uncompressed.increment();
+                }
+                return read;
+            }
+        };
+    }
+
+    private static final class Direction {
+
+        final Counter uncompressed;
+        final Counter compressed;
+        final Counter seconds;
+
+        Direction(MeterRegistry registry, String encoding, String operation) {
+            this.uncompressed = bytes(registry, encoding, operation, "uncompressed");
+            this.compressed = bytes(registry, encoding, operation, "compressed");
+            this.seconds = Counter.builder("sku.grpc.compression.time")
+                    .description("Tempo gasto comprimindo e descomprimindo mensagens")
+                    .baseUnit("seconds")
+                    .tag("encoding", encoding)
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+
+        void time(long start) {
+            seconds.increment((System.nanoTime() - start) / 1e9);
+        }
+
+        private static Counter bytes(MeterRegistry registry, String encoding, String operation, String form) {
+            return Counter.builder("sku.grpc.compression.bytes")
+                    .baseUnit("bytes")
+                    .tag("encoding", encoding)
+                    .tag("operation", operation)
+                    .tag("form", form)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.sku;
+
+import com.example.sku.grpc.ImportMode;
+import com.example.sku.grpc.Sku;
+import com.example.sku.grpc.SkuByItemRequest;
+import com.example.sku.grpc.SkuByWarehouseRequest;
+import com.example.sku.grpc.SkuChangeBatch;
+import com.example.sku.grpc.SkuGetByIdRequest;
+import com.example.sku.grpc.SkuGetByIdsRequest;
+import com.example.sku.grpc.SkuGetByIdsResponse;
+import com.example.sku.grpc.SkuImportSummary;
+import com.example.sku.grpc.SkuListResponse;
+import com.example.sku.grpc.SkuLookup;
+import com.example.sku.grpc.SkuRequest;
+import com.example.sku.grpc.SkuResponse;
+import com.example.sku.grpc.SkuServiceGrpc;
+import com.example.sku.grpc.SkuWatchRequest;
+import com.google.protobuf.Timestamp;
+import com.google.type.Money;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Service
+public class GrpcSkuService extends SkuServiceGrpc.SkuServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcSkuService.class);
+    private final SkuStore skuStore;
+    private final SkuCache skuCache;
+    private final SkuChangeFeed skuChangeFeed;
+    private final SkuImportPartitioner skuImportPartitioner;
+    private final SkuWriteCoalescer skuWriteCoalescer;
+    private final int streamChunkSize;
+    private final int queryChunkSize;
+    private final int maxPageSize;
+    private final int maxIdsPerRequest;
+    private final int bulkThreshold;
+
+    public GrpcSkuService(SkuStore skuStore,
+                          SkuCache skuCache,
+                          SkuChangeFeed skuChangeFeed,
+                          SkuImportPartitioner skuImportPartitioner,
+                          SkuWriteCoalescer skuWriteCoalescer,
+                          @Value("${sku.import.stream-chunk-size:1000}") int streamChunkSize,
+                          @Value("${sku.query.stream-chunk-size:500}") int queryChunkSize,
+                          @Value("${sku.query.max-page-size:1000}") int maxPageSize,
+                          @Value("${sku.query.max-ids:1000}") int maxIdsPerRequest,
+                          @Value("${sku.import.bulk-threshold:5000}") int bulkThreshold) {
+        this.skuStore = skuStore;
+        this.skuCache = skuCache;
+        this.skuChangeFeed = skuChangeFeed;
+        this.skuImportPartitioner = skuImportPartitioner;
+        this.skuWriteCoalescer = skuWriteCoalescer;
+        this.streamChunkSize = streamChunkSize;
+        this.queryChunkSize = queryChunkSize;
+        this.maxPageSize = maxPageSize;
+        this.maxIdsPerRequest = maxIdsPerRequest;
+        this.bulkThreshold = bulkThreshold;
+    }
+
+    @Override
+    public void importSkus(SkuRequest request, StreamObserver<SkuResponse> responseObserver) {
+        try {
+            List<com.example.sku.Sku> skus = new ArrayList<>();
+            for (com.example.sku.grpc.Sku skuProto : request.getSkusList()) {
+                com.example.sku.Sku skuEntity = mapProtoToEntity(skuProto);
+                skus.add(skuEntity);
+            }
+
+            String responseMassage = "";
+            SkuWriteResult result = SkuWriteResult.EMPTY;
+            if(skus.isEmpty()){
+                responseMassage = "No skus to import.";
+            } else {
+                com.example.sku.Sku[] entities = skus.toArray(new com.example.sku.Sku[0]);
+                // Pedidos pequenos vão para o group commit mesmo no Mongo, onde bulk-threshold=1 manda tudo para o bulk
+                boolean coalesced = request.getMode() != ImportMode.IMPORT_MODE_BULK && skuWriteCoalescer.accepts(entities.length);
+                try {
+                    if (coalesced) {
+                        result = skuWriteCoalescer.write(entities);
+                    } else {
+                        result = skuImportPartitioner.write(entities, useBulkLoad(request)
+                                ? skuStore::bulkLoad
+                                : skuStore::save);
+                    }
+                } catch (SkuImportPartitioner.PartialImportException e) {
+                    // No group commit e.written() já é a parte desta chamada
+                    publishChanges(entities, coalesced || e.written().applied() > 0);
+                    throw e;
+                } finally {
+                    skuCache.invalidate(entities);
+                }
+                // No group commit as contagens da chamada podem ser uma repartição das do grupo: relê sempre
+                publishChanges(entities, coalesced || result.applied() > 0);
+                responseMassage = (coalesced
+                        ? "Imported " + result.rows() + " skus successfully in a group commit ("
+                        : "Imported " + result.rows() + " skus successfully (")
+                        + result.inserted() + " inserted, " + result.updated() + " updated, "
+                        + result.skipped() + " unchanged or stale skipped).";
+
+            }
+
+            SkuResponse response = SkuResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage(responseMassage)
+                    .setApplied(result.applied())
+                    .setSkipped(result.skipped())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+            logger.info("ImportSkus completed: {}", responseMassage);
+        } catch (SkuImportPartitioner.PartialImportException e) {
+            // As partições que gravaram continuam gravadas; applied e skipped contam só elas
+            String message = "Error importing skus: " + e.getMessage();
+            SkuResponse response = SkuResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage(message)
+                    .setApplied(e.written().applied())
+                    .setSkipped(e.written().skipped())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+            logger.error("ImportSkus partially failed: {}", message);
+        } catch (Exception e) {
+            String message = "Error importing skus: " + e.getMessage();
+            SkuResponse response = SkuResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage(message)
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+            logger.error("ImportSkus failed: {}", message, e);
+        }
+    }
+
+    /**
+     * Relê as linhas gravadas para o WatchSkus receber o estado efetivo: o upsert condicional pode ter mantido
+     * a versão anterior. Só custa a leitura extra quando há assinantes.
+     */
+    private void publishChanges(com.example.sku.Sku[] entities, boolean applied) {
+        if (!applied || !skuChangeFeed.hasSubscribers()) {
+            return;
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (com.example.sku.Sku entity : entities) {
+            if (entity.getId() != null) {
+                ids.add(entity.getId());
+            }
+        }
+        try {
+            skuChangeFeed.publish(skuStore.findByIds(ids));
+        } catch (RuntimeException e) {
+            logger.warn("Could not read back {} imported skus for WatchSkus, requesting resync", ids.size(), e);
+            skuChangeFeed.resyncAll();
+        }
+    }
+
+    private boolean useBulkLoad(SkuRequest request) {
+        return switch (request.getMode()) {
+            case IMPORT_MODE_BULK -> true;
+            case IMPORT_MODE_BATCH -> false;
+            default -> request.getSkusCount() >= bulkThreshold;
+        };
+    }
+
+    @Override
+    public StreamObserver<Sku> importSkusStream(StreamObserver<SkuImportSummary> responseObserver) {
+        ServerCallStreamObserver<SkuImportSummary> serverObserver =
+                (ServerCallStreamObserver<SkuImportSummary>) responseObserver;
+        // Controle de fluxo manual: só pede mais mensagens ao cliente depois que o bloco atual foi gravado
+        serverObserver.disableAutoRequest();
+        serverObserver.request(streamChunkSize);
+
+        return new StreamObserver<>() {
+            private final List<com.example.sku.Sku> chunk = new ArrayList<>(streamChunkSize);
+            private long received;
+            private long written;
+            private long skipped;
+            private int chunks;
+            private boolean failed;
+
+            @Override
+            public void onNext(Sku skuProto) {
+                if (failed) {
+                    return;
+                }
+                received++;
+                chunk.add(mapProtoToEntity(skuProto));
+                if (chunk.size() >= streamChunkSize && flush()) {
+                    serverObserver.request(streamChunkSize);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                chunk.clear();
+                logger.warn("ImportSkusStream cancelled by client after {} skus ({} written): {}",
+                        received, written, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed || !flush()) {
+                    return;
+                }
+                String message = received == 0
+                        ? "No skus to import."
+                        : "Imported " + written + " skus successfully in " + chunks + " chunks ("
+                                + skipped + " unchanged or stale skipped).";
+                responseObserver.onNext(summary(true, message));
+                responseObserver.onCompleted();
+                logger.info("ImportSkusStream completed: {}", message);
+            }
+
+            private boolean flush() {
+                if (chunk.isEmpty()) {
+                    return true;
+                }
+                com.example.sku.Sku[] entities = chunk.toArray(new com.example.sku.Sku[0]);
+                try {
+                    SkuWriteResult result = skuImportPartitioner.write(entities, skuStore::save);
+                    written += result.applied();
+                    skipped += result.skipped();
+                    chunks++;
+                    chunk.clear();
+                    skuCache.invalidate(entities);
+                    publishChanges(entities, result.applied() > 0);
+                    return true;
+                } catch (Exception e) {
+                    failed = true;
+                    chunk.clear();
+                    skuCache.invalidate(entities);
+                    String message = "Error importing skus: " + e.getMessage();
+                    responseObserver.onNext(summary(false, message));
+                    responseObserver.onCompleted();
+                    logger.error("ImportSkusStream failed after {} skus: {}", received, message, e);
+                    return false;
+                }
+            }
+
+            private SkuImportSummary summary(boolean success, String message) {
+                return SkuImportSummary.newBuilder()
+                        .setSuccess(success)
+                        .setMessage(message)
+                        .setReceived(received)
+                        .setWritten(written)
+                        .setSkipped(skipped)
+                        .setChunks(chunks)
+                        .build();
+            }
+        };
+    }
+
+    @Override
+    public void getById(SkuGetByIdRequest request, StreamObserver<Sku> responseObserver) {
+        Sku sku = skuCache.get(request.getSkuId(), skuId -> skuStore.findById(skuId).orElse(null));
+        responseObserver.onNext(sku != null ? sku : Sku.getDefaultInstance());
+        responseObserver.onCompleted();
+        logger.info("GetById completed for skuId: {}", request.getSkuId());
+    }
+
+    @Override
+    public void getByIds(SkuGetByIdsRequest request, StreamObserver<SkuGetByIdsResponse> responseObserver) {
+        if (request.getSkuIdsCount() > maxIdsPerRequest) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + maxIdsPerRequest + " sku_ids per request")
+                    .asRuntimeException());
+            return;
+        }
+        Map<Long, Sku> found = skuCache.getAll(request.getSkuIdsList(), skuIds -> {
+            Map<Long, Sku> loaded = new HashMap<>();
+            for (Sku sku : skuStore.findByIds(skuIds)) {
+                loaded.put(sku.getSkuId(), sku);
+            }
+            return loaded;
+        });
+
+        SkuGetByIdsResponse.Builder response = SkuGetByIdsResponse.newBuilder();
+        for (long skuId : request.getSkuIdsList()) {
+            SkuLookup.Builder lookup = response.addResultsBuilder().setSkuId(skuId);
+            Sku sku = found.get(skuId);
+            if (sku != null) {
+                lookup.setFound(true).setSku(sku);
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+        logger.info("GetByIds completed for {} ids ({} found)", request.getSkuIdsCount(), found.size());
+    }
+
+    @Override
+    public void getByWarehouse(SkuByWarehouseRequest request, StreamObserver<SkuListResponse> responseObserver) {
+        SkuListResponse response;
+        try {
+            response = listResponse(PageToken.WAREHOUSE, request.getWarehouseId(), request.getPageSize(), request.getPageToken(),
+                    () -> skuStore.findByWarehouseId(request.getWarehouseId()),
+                    (afterSkuId, limit) -> skuStore.findByWarehouseId(request.getWarehouseId(), afterSkuId, limit));
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+        logger.info("GetByWarehouse completed for warehouseId: {}", request.getWarehouseId());
+    }
+
+    @Override
+    public void getByItem(SkuByItemRequest request, StreamObserver<SkuListResponse> responseObserver) {
+        SkuListResponse response;
+        try {
+            response = listResponse(PageToken.ITEM, request.getItemId(), request.getPageSize(), request.getPageToken(),
+                    () -> skuStore.findByItemId(request.getItemId()),
+                    (afterSkuId, limit) -> skuStore.findByItemId(request.getItemId(), afterSkuId, limit));
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+        logger.info("GetByItem completed for itemId: {}", request.getItemId());
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Sku> find(long afterSkuId, int limit);
+    }
+
+    private SkuListResponse listResponse(char filter, long filterId, int pageSize, String pageToken,
+                                         Supplier<List<Sku>> all, PageQuery page) {
+        SkuListResponse.Builder response = SkuListResponse.newBuilder();
+        if (pageSize == 0) {
+            return response.addAllSkus(all.get()).build();
+        }
+
+        // page_size é uint32: compara sem sinal para não virar negativo
+        int limit = Integer.compareUnsigned(pageSize, maxPageSize) > 0 ? maxPageSize : pageSize;
+        long afterSkuId = PageToken.decode(pageToken, filter, filterId);
+        // Busca um a mais só para saber se existe próxima página
+        List<Sku> skus = page.find(afterSkuId, limit + 1);
+        boolean hasMore = skus.size() > limit;
+        if (hasMore) {
+            skus = skus.subList(0, limit);
+        }
+        response.addAllSkus(skus);
+        if (hasMore) {
+            response.setNextPageToken(PageToken.encode(filter, filterId, skus.getLast().getSkuId()));
+        }
+        return response.build();
+    }
+
+    @Override
+    public void streamByWarehouse(SkuByWarehouseRequest request, StreamObserver<SkuListResponse> responseObserver) {
+        new SkuListStreamer((ServerCallStreamObserver<SkuListResponse>) responseObserver,
+                "StreamByWarehouse for warehouseId: " + request.getWarehouseId(),
+                (afterSkuId, limit) -> skuStore.findByWarehouseId(request.getWarehouseId(), afterSkuId, limit)).start();
+    }
+
+    @Override
+    public void streamByItem(SkuByItemRequest request, StreamObserver<SkuListResponse> responseObserver) {
+        new SkuListStreamer((ServerCallStreamObserver<SkuListResponse>) responseObserver,
+                "StreamByItem for itemId: " + request.getItemId(),
+                (afterSkuId, limit) -> skuStore.findByItemId(request.getItemId(), afterSkuId, limit)).start();
+    }
+
+    @Override
+    public void watchSkus(SkuWatchRequest request, StreamObserver<SkuChangeBatch> responseObserver) {
+        skuChangeFeed.subscribe(request, (ServerCallStreamObserver<SkuChangeBatch>) responseObserver);
+        logger.info("WatchSkus subscribed with filter: {}", request.getFilterCase());
+    }
+
+    /**
+     * Lê páginas de até {@code queryChunkSize} skus por keyset (sku_id) e envia cada uma como uma mensagem, só
+     * enquanto o transporte está pronto. Quando o cliente não acompanha, o onReadyHandler retorna e devolve a
+     * thread e a permissão de banco; a próxima página só é lida quando o transporte voltar a ficar pronto.
+     */
+    private final class SkuListStreamer implements Runnable {
+
+        private final ServerCallStreamObserver<SkuListResponse> observer;
+        private final String description;
+        private final PageQuery page;
+        // O gRPC serializa os callbacks da chamada, então o estado não precisa de sincronização
+        private long afterSkuId = Long.MIN_VALUE;
+        private long sent;
+        private boolean done;
+
+        SkuListStreamer(ServerCallStreamObserver<SkuListResponse> observer, String description, PageQuery page) {
+            this.observer = observer;
+            this.description = description;
+            this.page = page;
+        }
+
+        // O gRPC chama o onReadyHandler assim que o handler retorna se o transporte já estiver pronto
+        void start() {
+            observer.setOnCancelHandler(() -> {
+                done = true;
+                logger.info("{} cancelled by client after {} skus", description, sent);
+            });
+            observer.setOnReadyHandler(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done && observer.isReady()) {
+                    List<Sku> skus = page.find(afterSkuId, queryChunkSize);
+                    if (!skus.isEmpty()) {
+                        observer.onNext(SkuListResponse.newBuilder().addAllSkus(skus).build());
+                        sent += skus.size();
+                        afterSkuId = skus.getLast().getSkuId();
+                    }
+                    if (skus.size() < queryChunkSize) {
+                        done = true;
+                        observer.onCompleted();
+                        logger.info("{} completed ({} skus)", description, sent);
+                    }
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                logger.error("{} failed after {} skus", description, sent, e);
+                observer.onError(Status.INTERNAL
+                        .withDescription("Error streaming skus: " + e.getMessage())
+                        .withCause(e)
+                        .asRuntimeException());
+            }
+        }
+    }
+
+    static com.example.sku.Sku mapProtoToEntity(Sku proto) {
+        com.example.sku.Sku entity = new com.example.sku.Sku();
+        if (proto.hasSkuId()) {
+            entity.setId(proto.getSkuId());
+        }
+        if (proto.hasWarehouseId()) {
+            entity.setWarehouseId(proto.getWarehouseId());
+        }
+        entity.setItemId(proto.getItemId());
+        entity.setAmount(proto.getAmount());
+        entity.setCountryCode(proto.getCountryCode());
+        
+        switch (proto.getAvailabilityType()) {
+            case READY_TO_SHIP:
+                entity.setAvailabilityType(AvailabilityType.READY_TO_SHIP);
+                break;
+            case MADE_TO_ORDER:
+                entity.setAvailabilityType(AvailabilityType.MADE_TO_ORDER);
+                break;
+            case OPEN_BOX:
+                entity.setAvailabilityType(AvailabilityType.OPEN_BOX);
+                break;
+            case USED:
+                entity.setAvailabilityType(AvailabilityType.USED);
+                break;
+            case REFURBISHED:
+                entity.setAvailabilityType(AvailabilityType.REFURBISHED);
+                break;
+            default:
+                entity.setAvailabilityType(AvailabilityType.READY_TO_SHIP);
+        }
+
+        if (proto.hasBasePrice()) {
+            Money money = proto.getBasePrice();
+            entity.setPriceNanos(MoneyNanos.toNanos(money));
+            entity.setCurrencyCode(money.getCurrencyCode());
+        }
+
+        if (proto.hasLastUpdated()) {
+            Timestamp ts = proto.getLastUpdated();
+            entity.setLastUpdated(Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos())
+                    .atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        }
+
+        return entity;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.sku;
+
+import com.google.protobuf.Timestamp;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Motor de referência em memória ({@code sku.store=memory}), para medir a camada de serviço sem banco e comparar
+ * os motores com o mesmo {@link GrpcSkuService}. Nada é persistido: o conteúdo some quando o servidor para.
+ * <p>
+ * Os protos ficam num mapa de chave primitiva por sku_id; os índices por warehouse_id e item_id guardam os sku_ids
+ * ordenados, então uma página por keyset é uma busca binária mais o tamanho da página. Segue a regra do upsert
+ * condicional dos bancos: só os campos que o upsert atualiza são comparados e trocados, e versões iguais ou mais
+ * antigas que a gravada são mantidas.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.store", havingValue = "memory")
+public class InMemorySkuStore implements SkuStore {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongMap<com.example.sku.grpc.Sku> skus = new LongMap<>();
+    private final LongMap<SortedLongSet> byWarehouse = new LongMap<>();
+    private final LongMap<SortedLongSet> byItem = new LongMap<>();
+
+    @Override
+    public SkuWriteResult save(Sku... entities) {
+        com.example.sku.grpc.Sku[] protos = new com.example.sku.grpc.Sku[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            if (entities[i].getId() == null) {
+                throw new IllegalArgumentException("sku_id is required");
+            }
+            protos[i] = toProto(entities[i]);
+        }
+
+        int inserted = 0;
+        int updated = 0;
+        lock.writeLock().lock();
+        try {
+            for (com.example.sku.grpc.Sku sku : protos) {
+                com.example.sku.grpc.Sku current = skus.get(sku.getSkuId());
+                if (current == null) {
+                    skus.put(sku.getSkuId(), sku);
+                    if (sku.hasWarehouseId()) {
+                        index(byWarehouse, sku.getWarehouseId()).add(sku.getSkuId());
+                    }
+                    index(byItem, sku.getItemId()).add(sku.getSkuId());
+                    inserted++;
+                } else if (isNewer(sku, current) && !sameContent(sku, current)) {
+                    skus.put(sku.getSkuId(), merge(current, sku));
+                    if (sku.hasWarehouseId() != current.hasWarehouseId() || sku.getWarehouseId() != current.getWarehouseId()) {
+                        if (current.hasWarehouseId()) {
+                            byWarehouse.get(current.getWarehouseId()).remove(sku.getSkuId());
+                        }
+                        if (sku.hasWarehouseId()) {
+                            index(byWarehouse, sku.getWarehouseId()).add(sku.getSkuId());
+                        }
+                    }
+                    updated++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new SkuWriteResult(protos.length, inserted, updated, protos.length - inserted - updated, 1);
+    }
+
+    @Override
+    public Optional<com.example.sku.grpc.Sku> findById(long skuId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(skus.get(skuId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> skuIds) {
+        List<com.example.sku.grpc.Sku> found = new ArrayList<>(skuIds.size());
+        lock.readLock().lock();
+        try {
+            for (long skuId : skuIds) {
+                com.example.sku.grpc.Sku sku = skus.get(skuId);
+                if (sku != null) {
+                    found.add(sku);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId) {
+        return select(byWarehouse, warehouseId, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId) {
+        return select(byItem, itemId, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit) {
+        return select(byWarehouse, warehouseId, afterSkuId, limit);
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit) {
+        return select(byItem, itemId, afterSkuId, limit);
+    }
+
+    // A lista é copiada antes de entregar: o consumer pode bloquear esperando o cliente e não deve segurar o lock
+    @Override
+    public void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        findByWarehouseId(warehouseId).forEach(consumer);
+    }
+
+    @Override
+    public void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        findByItemId(itemId).forEach(consumer);
+    }
+
+    @Override
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        List<com.example.sku.grpc.Sku> all;
+        lock.readLock().lock();
+        try {
+            all = new ArrayList<>(skus.size());
+            skus.forEach((skuId, sku) -> all.add(sku));
+        } finally {
+            lock.readLock().unlock();
+        }
+        all.forEach(consumer);
+    }
+
+    // afterSkuId nulo devolve todos os skus da chave
+    private List<com.example.sku.grpc.Sku> select(LongMap<SortedLongSet> index, long key, Long afterSkuId, int limit) {
+        lock.readLock().lock();
+        try {
+            SortedLongSet ids = index.get(key);
+            if (ids == null) {
+                return List.of();
+            }
+            // sku_id é uint64 mas os bancos guardam BIGINT com sinal: a ordem segue a do long
+            int from = afterSkuId != null ? ids.indexAfter(afterSkuId) : 0;
+            int to = (int) Math.min(ids.size, (long) from + limit);
+            List<com.example.sku.grpc.Sku> page = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                page.add(skus.get(ids.values[i]));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static SortedLongSet index(LongMap<SortedLongSet> index, long key) {
+        SortedLongSet ids = index.get(key);
+        if (ids == null) {
+            ids = new SortedLongSet();
+            index.put(key, ids);
+        }
+        return ids;
+    }
+
+    // Mesma condição do $lte do pipeline do Mongo: last_updated ausente na gravada vale como o mais antigo e é
+    // substituído; ausente no recebido não substitui uma gravada com data
+    private static boolean isNewer(com.example.sku.grpc.Sku sku, com.example.sku.grpc.Sku current) {
+        if (!current.hasLastUpdated()) {
+            return true;
+        }
+        if (!sku.hasLastUpdated()) {
+            return false;
+        }
+        Timestamp incoming = sku.getLastUpdated();
+        Timestamp stored = current.getLastUpdated();
+        return incoming.getSeconds() != stored.getSeconds()
+                ? incoming.getSeconds() > stored.getSeconds()
+                : incoming.getNanos() >= stored.getNanos();
+    }
+
+    private static boolean sameContent(com.example.sku.grpc.Sku sku, com.example.sku.grpc.Sku current) {
+        return sku.hasWarehouseId() == current.hasWarehouseId()
+                && sku.getWarehouseId() == current.getWarehouseId()
+                && sku.getAmount() == current.getAmount()
+                && sku.getAvailabilityType() == current.getAvailabilityType()
+                && sku.getBasePrice().equals(current.getBasePrice());
+    }
+
+    // item_id e country_code ficam como estavam, como no ON CONFLICT / ON DUPLICATE KEY dos bancos
+    private static com.example.sku.grpc.Sku merge(com.example.sku.grpc.Sku current, com.example.sku.grpc.Sku sku) {
+        com.example.sku.grpc.Sku.Builder builder = current.toBuilder()
+                .setAmount(sku.getAmount())
+                .setAvailabilityType(sku.getAvailabilityType())
+                .setLastUpdated(sku.getLastUpdated());
+        if (sku.hasWarehouseId()) {
+            builder.setWarehouseId(sku.getWarehouseId());
+        } else {
+            builder.clearWarehouseId();
+        }
+        if (sku.hasBasePrice()) {
+            builder.setBasePrice(sku.getBasePrice());
+        } else {
+            builder.clearBasePrice();
+        }
+        return builder.build();
+    }
+
+    private static com.example.sku.grpc.Sku toProto(Sku entity) {
+        com.example.sku.grpc.Sku.Builder builder = com.example.sku.grpc.Sku.newBuilder()
+                .setSkuId(entity.getId());
+        if (entity.getWarehouseId() != null) {
+            builder.setWarehouseId(entity.getWarehouseId());
+        }
+        if (entity.getItemId() != null) {
+            builder.setItemId(entity.getItemId());
+        }
+        if (entity.getAmount() != null) {
+            builder.setAmount(entity.getAmount());
+        }
+        if (entity.getCountryCode() != null) {
+            builder.setCountryCode(entity.getCountryCode());
+        }
+        if (entity.getAvailabilityType() != null) {
+            builder.setAvailabilityType(com.example.sku.grpc.Sku.AvailabilityType.valueOf(entity.getAvailabilityType().name()));
+        }
+        if (entity.getPriceNanos() != null) {
+            String currencyCode = entity.getCurrencyCode();
+            builder.setBasePrice(MoneyNanos.toMoney(entity.getPriceNanos(), currencyCode != null ? currencyCode : "USD"));
+        }
+        if (entity.getLastUpdated() != null) {
+            Instant instant = entity.getLastUpdated().toInstant();
+            builder.setLastUpdated(Timestamp.newBuilder()
+                    .setSeconds(instant.getEpochSecond())
+                    .setNanos(instant.getNano()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * sku_ids de um warehouse ou item em ordem crescente. A inserção desloca o final do array; como o import chega
+     * ordenado por sku_id, o caso comum é acrescentar no fim.
+     */
+    private static final class SortedLongSet {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+        }
+
+        void remove(long value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+
+        // Posição do primeiro sku_id maior que afterSkuId
+        int indexAfter(long afterSkuId) {
+            int at = Arrays.binarySearch(values, 0, size, afterSkuId);
+            return at >= 0 ? at + 1 : -at - 1;
+        }
+    }
+}
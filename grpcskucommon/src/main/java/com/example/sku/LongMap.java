@@ -0,0 +1,92 @@
+package com.example.sku;
+
+/**
+ * Hash aberto com sondagem linear e chaves {@code long} sem boxing. Não tem remoção: skus não são apagados
+ * e uma chave de índice sem skus continua no mapa. A chave 0 fica fora da tabela porque 0 marca posição livre.
+ */
+final class LongMap<V> {
+
+    private long[] keys = new long[16];
+    private Object[] values = new Object[16];
+    private int size;
+    private V zeroValue;
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        if (key == 0) {
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        // Fator de carga 0,5 mantém as sequências de sondagem curtas
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    int size() {
+        return zeroValue != null ? size + 1 : size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(Entry<V> action) {
+        if (zeroValue != null) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @FunctionalInterface
+    interface Entry<V> {
+        void accept(long key, V value);
+    }
+}
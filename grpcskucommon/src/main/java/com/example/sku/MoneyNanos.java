@@ -0,0 +1,34 @@
+package com.example.sku;
+
+import com.google.type.Money;
+
+/**
+ * Preço em ponto fixo: um {@code long} com o valor em nanos (10^-9) da moeda.
+ * A conversão de e para {@link Money} é exata, sem BigDecimal nem ponto flutuante.
+ */
+public final class MoneyNanos {
+
+    public static final long NANOS_PER_UNIT = 1_000_000_000L;
+
+    private MoneyNanos() {
+    }
+
+    /**
+     * @throws ArithmeticException se o valor não couber em um long (mais de ~9,2 bilhões de unidades)
+     */
+    public static long toNanos(long units, int nanos) {
+        return Math.addExact(Math.multiplyExact(units, NANOS_PER_UNIT), nanos);
+    }
+
+    public static long toNanos(Money money) {
+        return toNanos(money.getUnits(), money.getNanos());
+    }
+
+    // Divisão e resto truncam para zero, então units e nanos saem com o mesmo sinal, como o Money exige
+    public static Money.Builder toMoney(long priceNanos, String currencyCode) {
+        return Money.newBuilder()
+                .setCurrencyCode(currencyCode)
+                .setUnits(priceNanos / NANOS_PER_UNIT)
+                .setNanos((int) (priceNanos % NANOS_PER_UNIT));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sku;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Token opaco da paginação por keyset: guarda o filtro da consulta e o último sku_id devolvido.
+ * A próxima página continua em {@code sku_id > último}, sem OFFSET.
+ */
+public final class PageToken {
+
+    public static final char WAREHOUSE = 'W';
+    public static final char ITEM = 'I';
+
+    private static final int TOKEN_BYTES = 1 + Long.BYTES + Long.BYTES;
+
+    private PageToken() {
+    }
+
+    public static String encode(char filter, long filterId, long lastSkuId) {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .put((byte) filter)
+                .putLong(filterId)
+                .putLong(lastSkuId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return o sku_id a partir do qual a página começa (exclusivo); {@link Long#MIN_VALUE} na primeira página
+     * @throws IllegalArgumentException se o token for inválido ou de outra consulta
+     */
+    public static long decode(String token, char filter, long filterId) {
+        if (token == null || token.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed page_token", e);
+        }
+        if (bytes.length != TOKEN_BYTES) {
+            throw new IllegalArgumentException("Malformed page_token");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != (byte) filter || buffer.getLong() != filterId) {
+            throw new IllegalArgumentException("page_token does not belong to this query");
+        }
+        return buffer.getLong();
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.sku;
 
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 public class Sku {
@@ -11,7 +10,7 @@ public class Sku {
     private Integer amount;
     private String countryCode;
     private AvailabilityType availabilityType = AvailabilityType.READY_TO_SHIP;
-    private BigDecimal priceAmount;
+    private Long priceNanos;
     private String currencyCode;
     private OffsetDateTime lastUpdated;
 
@@ -63,12 +62,12 @@ public class Sku {
         this.availabilityType = availabilityType;
     }
 
-    public BigDecimal getPriceAmount() {
-        return priceAmount;
+    public Long getPriceNanos() {
+        return priceNanos;
     }
 
-    public void setPriceAmount(BigDecimal priceAmount) {
-        this.priceAmount = priceAmount;
+    public void setPriceNanos(Long priceNanos) {
+        this.priceNanos = priceNanos;
     }
 
     public String getCurrencyCode() {
@@ -96,7 +95,7 @@ public class Sku {
                 ", amount=" + amount +
                 ", countryCode='" + countryCode + '\'' +
                 ", availabilityType=" + availabilityType +
-                ", priceAmount=" + priceAmount +
+                ", priceNanos=" + priceNanos +
                 ", currencyCode='" + currencyCode + '\'' +
                 ", lastUpdated=" + lastUpdated +
                 '}';
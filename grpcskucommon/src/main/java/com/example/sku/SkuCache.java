@@ -0,0 +1,113 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache read-through do GetById com os protos já montados, indexados por sku_id.
+ * Caffeine (W-TinyLFU) mantém o conjunto mais acessado dentro de {@code sku.cache.max-size}.
+ * Acertos, faltas, remoções e tamanho saem no Micrometer como {@code cache.*} com {@code cache=sku}.
+ */
+@Component
+public class SkuCache {
+
+    // Versões por faixa de sku_id: invalidate incrementa, e uma carga em lote só guarda o que leu se a versão
+    // da faixa não mudou desde antes da leitura
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Cache<Long, Sku> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public SkuCache(MeterRegistry registry,
+                    @Value("${sku.cache.max-size:100000}") long maxSize,
+                    @Value("${sku.cache.ttl:10m}") Duration ttl) {
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<Long, Sku>build(), "sku");
+    }
+
+    /**
+     * Devolve o sku do cache ou carrega com {@code loader}; {@code null} do loader não é guardado.
+     */
+    public Sku get(long skuId, Function<Long, Sku> loader) {
+        return cache.get(skuId, loader);
+    }
+
+    /**
+     * Versão em lote do {@link #get}: os ids ausentes do cache são carregados juntos por {@code loader}.
+     * Ids que o loader não devolve ficam fora do mapa e não são guardados.
+     * <p>
+     * A carga em lote roda fora do lock do cache. Um sku lido antes de um import e guardado depois da
+     * invalidação ficaria velho até o ttl, então só é guardado se nenhum {@link #invalidate} da sua faixa
+     * aconteceu desde antes da leitura; de qualquer forma ele é devolvido para esta chamada.
+     */
+    public Map<Long, Sku> getAll(Iterable<Long> skuIds, Function<Set<? extends Long>, Map<Long, Sku>> loader) {
+        Map<Long, Sku> found = new HashMap<>(cache.getAllPresent(skuIds));
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long skuId : skuIds) {
+            if (!found.containsKey(skuId)) {
+                missing.add(skuId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<Long, Long> versionBeforeLoad = new HashMap<>(missing.size() * 2);
+        for (Long skuId : missing) {
+            versionBeforeLoad.put(skuId, versions.get(stripe(skuId)));
+        }
+        Map<Long, Sku> loaded = loader.apply(missing);
+        for (Map.Entry<Long, Long> entry : versionBeforeLoad.entrySet()) {
+            long skuId = entry.getKey();
+            Sku sku = loaded.get(skuId);
+            if (sku == null) {
+                continue;
+            }
+            found.put(skuId, sku);
+            long version = entry.getValue();
+            // Atômico com o invalidateAll do mesmo id: se a versão ainda não mudou, a remoção vem depois
+            cache.asMap().compute(skuId, (id, current) ->
+                    current != null || versions.get(stripe(id)) != version ? current : sku);
+        }
+        return found;
+    }
+
+    /**
+     * Deve ser chamado depois que a gravação foi efetivada. Uma carga do {@link #get} em andamento para o mesmo
+     * id termina antes da remoção, e uma carga do {@link #getAll} em andamento não guarda o que leu, então o
+     * valor antigo não fica no cache.
+     */
+    public void invalidate(com.example.sku.Sku... skus) {
+        List<Long> ids = new ArrayList<>(skus.length);
+        for (com.example.sku.Sku sku : skus) {
+            if (sku.getId() != null) {
+                ids.add(sku.getId());
+                // Antes da remoção, para que uma carga que ainda vai guardar veja a versão nova
+                versions.incrementAndGet(stripe(sku.getId()));
+            }
+        }
+        cache.invalidateAll(ids);
+    }
+
+    private static int stripe(long skuId) {
+        return Long.hashCode(skuId * 0x9E3779B97F4A7C15L) & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.example.sku.grpc.SkuChangeBatch;
+import com.example.sku.grpc.SkuWatchRequest;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed em memória das alterações gravadas pelos imports desta instância, consumido pelo WatchSkus.
+ * Cada assinante acumula as alterações num mapa por sku_id (a última versão prevalece) que é enviado a cada
+ * {@code sku.watch.coalesce-window}, só enquanto o transporte estiver pronto. Um assinante que passa de
+ * {@code sku.watch.max-pending} skus pendentes é desligado com {@code RESOURCE_EXHAUSTED}: o cliente assina de
+ * novo e recarrega. Quando não dá para saber o que foi gravado, todos recebem {@code resync_required}.
+ * Um sku que sai do armazém ou item filtrado não gera evento para quem filtrava pelo valor antigo.
+ */
+@Component
+public class SkuChangeFeed implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuChangeFeed.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sku-watch-flusher").daemon().factory());
+    private final int maxPending;
+    private final int maxBatchSize;
+
+    public SkuChangeFeed(@Value("${sku.watch.coalesce-window:200ms}") Duration coalesceWindow,
+                         @Value("${sku.watch.max-pending:10000}") int maxPending,
+                         @Value("${sku.query.stream-chunk-size:500}") int maxBatchSize) {
+        this.maxPending = maxPending;
+        this.maxBatchSize = maxBatchSize;
+        long window = coalesceWindow.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushAll, window, window, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra o assinante até o cliente cancelar a chamada; o handler pode retornar em seguida.
+     */
+    public void subscribe(SkuWatchRequest request, ServerCallStreamObserver<SkuChangeBatch> observer) {
+        Subscriber subscriber = new Subscriber(request, observer);
+        // Adicionado antes do handler e conferido depois: um cancelamento entre os dois não deixa assinante órfão
+        subscribers.add(subscriber);
+        observer.setOnCancelHandler(() -> subscribers.remove(subscriber));
+        if (observer.isCancelled()) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Deve receber o estado gravado, depois que a gravação foi efetivada.
+     */
+    public void publish(Collection<Sku> skus) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(skus);
+        }
+    }
+
+    /**
+     * Para quando não dá para saber o que foi gravado: todos os assinantes recebem {@code resync_required}.
+     */
+    public void resyncAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requireResync();
+        }
+    }
+
+    private void flushAll() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                if (!subscriber.flush()) {
+                    subscribers.remove(subscriber);
+                }
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+                logger.warn("WatchSkus subscriber dropped: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        flusher.shutdownNow();
+        flusher.awaitTermination(1, TimeUnit.SECONDS);
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.observer.onCompleted();
+            } catch (RuntimeException e) {
+                logger.debug("WatchSkus subscriber already closed: {}", e.getMessage());
+            }
+        }
+        subscribers.clear();
+    }
+
+    private final class Subscriber {
+
+        private final SkuWatchRequest filter;
+        private final ServerCallStreamObserver<SkuChangeBatch> observer;
+        private final Map<Long, Sku> pending = new LinkedHashMap<>();
+        private boolean resyncRequired;
+        private boolean exhausted;
+
+        Subscriber(SkuWatchRequest filter, ServerCallStreamObserver<SkuChangeBatch> observer) {
+            this.filter = filter;
+            this.observer = observer;
+        }
+
+        synchronized void offer(Collection<Sku> skus) {
+            if (resyncRequired || exhausted) {
+                // O cliente vai recarregar tudo de qualquer forma
+                return;
+            }
+            for (Sku sku : skus) {
+                if (matches(sku)) {
+                    pending.put(sku.getSkuId(), sku);
+                }
+            }
+            if (pending.size() > maxPending) {
+                // O erro sai pela thread do flusher, a única que escreve no observer
+                logger.warn("WatchSkus subscriber fell behind with {} pending skus, dropping it", pending.size());
+                pending.clear();
+                exhausted = true;
+            }
+        }
+
+        synchronized void requireResync() {
+            pending.clear();
+            resyncRequired = true;
+        }
+
+        // Só roda na thread do flusher; o lock não fica preso durante o onNext. Falso quando o assinante sai
+        boolean flush() {
+            if (isExhausted()) {
+                observer.onError(Status.RESOURCE_EXHAUSTED
+                        .withDescription("WatchSkus fell behind by more than " + maxPending + " skus, resubscribe and resync")
+                        .asRuntimeException());
+                return false;
+            }
+            while (observer.isReady()) {
+                SkuChangeBatch batch = next();
+                if (batch == null) {
+                    return true;
+                }
+                observer.onNext(batch);
+            }
+            return true;
+        }
+
+        private synchronized boolean isExhausted() {
+            return exhausted;
+        }
+
+        private synchronized SkuChangeBatch next() {
+            if (resyncRequired) {
+                resyncRequired = false;
+                return SkuChangeBatch.newBuilder().setResyncRequired(true).build();
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            SkuChangeBatch.Builder batch = SkuChangeBatch.newBuilder();
+            Iterator<Sku> it = pending.values().iterator();
+            while (it.hasNext() && batch.getSkusCount() < maxBatchSize) {
+                batch.addSkus(it.next());
+                it.remove();
+            }
+            return batch.build();
+        }
+
+        private boolean matches(Sku sku) {
+            return switch (filter.getFilterCase()) {
+                case WAREHOUSE_ID -> sku.hasWarehouseId() && sku.getWarehouseId() == filter.getWarehouseId();
+                case ITEM_ID -> sku.getItemId() == filter.getItemId();
+                case FILTER_NOT_SET -> true;
+            };
+        }
+    }
+}
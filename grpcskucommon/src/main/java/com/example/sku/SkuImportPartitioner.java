@@ -0,0 +1,162 @@
+package com.example.sku;
+
+import com.example.metrics.DbTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Divide um import grande em até {@code sku.import.parallelism} partições por faixa de sku_id e grava cada uma
+ * numa thread (e conexão do pool) própria. Todo lote, dividido ou não, fica só com a versão mais nova de cada
+ * sku_id e é ordenado por sku_id: as partições não se sobrepõem e toda transação trava as linhas na mesma
+ * ordem, então imports concorrentes não entram em deadlock entre si.
+ * <p>
+ * O pool de gravação é compartilhado: com vários imports ao mesmo tempo, o total de partições gravando é
+ * limitado por {@code sku.import.parallelism}, não multiplicado. Partições com falha não desfazem as outras;
+ * o resultado das que gravaram e o erro de cada uma que falhou vêm no {@link PartialImportException}.
+ */
+@Component
+public class SkuImportPartitioner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuImportPartitioner.class);
+
+    private final int parallelism;
+    private final int minPartitionSize;
+    private final ExecutorService writers;
+
+    public SkuImportPartitioner(@Value("${sku.import.parallelism:4}") int parallelism,
+                                @Value("${sku.import.min-partition-size:2000}") int minPartitionSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("sku.import.parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.minPartitionSize = minPartitionSize;
+        this.writers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("sku-import-", 0).daemon().factory());
+    }
+
+    /**
+     * Grava {@code skus} com {@code writer}, em partições paralelas quando cada uma fica com pelo menos
+     * {@code sku.import.min-partition-size} skus; abaixo disso grava numa partição só, na thread atual.
+     *
+     * @throws IllegalArgumentException se algum sku vier sem sku_id
+     * @throws PartialImportException   se alguma partição falhar
+     */
+    public SkuWriteResult write(Sku[] skus, Function<Sku[], SkuWriteResult> writer) {
+        Sku[] sorted = lastVersionPerIdSorted(skus);
+        int partitions = (int) Math.min(parallelism, sorted.length / Math.max(1, minPartitionSize));
+        if (partitions <= 1) {
+            return writer.apply(sorted);
+        }
+
+        List<Future<SkuWriteResult>> futures = new ArrayList<>(partitions);
+        List<Sku[]> slices = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            Sku[] slice = Arrays.copyOfRange(sorted,
+                    (int) ((long) sorted.length * p / partitions),
+                    (int) ((long) sorted.length * (p + 1) / partitions));
+            slices.add(slice);
+            futures.add(writers.submit(() -> writer.apply(slice)));
+        }
+
+        List<String> failures = new ArrayList<>();
+        // As partições gravam no pool: a espera por elas é o tempo de banco desta chamada
+        SkuWriteResult written = DbTime.awaiting(() -> collect(futures, slices, failures));
+        if (!failures.isEmpty()) {
+            throw new PartialImportException(written, failures);
+        }
+        logger.debug("Import of {} skus written in {} partitions", sorted.length, partitions);
+        return written;
+    }
+
+    private static SkuWriteResult collect(List<Future<SkuWriteResult>> futures, List<Sku[]> slices,
+                                          List<String> failures) {
+        int partitions = futures.size();
+        SkuWriteResult written = SkuWriteResult.EMPTY;
+        for (int p = 0; p < partitions; p++) {
+            Sku[] slice = slices.get(p);
+            try {
+                written = written.plus(futures.get(p).get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failures.add("partition " + (p + 1) + "/" + partitions + " (sku_id " + slice[0].getId() + ".."
+                        + slice[slice.length - 1].getId() + ", " + slice.length + " skus): " + cause.getMessage());
+                logger.warn("Import partition {}/{} failed", p + 1, partitions, cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for import partitions", e);
+            }
+        }
+        return written;
+    }
+
+    // Mesmo resultado do upsert linha a linha: vale o maior last_updated de cada sku_id no lote
+    private static Sku[] lastVersionPerIdSorted(Sku[] skus) {
+        Map<Long, Sku> latest = new HashMap<>(skus.length * 2);
+        for (Sku sku : skus) {
+            if (sku.getId() == null) {
+                throw new IllegalArgumentException("sku_id is required");
+            }
+            latest.merge(sku.getId(), sku, (kept, next) -> supersedes(next, kept) ? next : kept);
+        }
+        Sku[] sorted = latest.values().toArray(new Sku[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Sku::getId));
+        return sorted;
+    }
+
+    /**
+     * Se {@code next}, recebido depois de {@code kept}, o substitui: last_updated maior ou igual, com o nulo
+     * valendo como o mais antigo. No empate fica a ocorrência posterior, como no upsert condicional.
+     */
+    static boolean supersedes(Sku next, Sku kept) {
+        if (next.getLastUpdated() == null) {
+            return kept.getLastUpdated() == null;
+        }
+        return kept.getLastUpdated() == null || !next.getLastUpdated().isBefore(kept.getLastUpdated());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        writers.shutdown();
+        if (!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+            writers.shutdownNow();
+        }
+    }
+
+    /**
+     * Import em que parte das partições falhou; as demais ficaram gravadas.
+     */
+    public static class PartialImportException extends RuntimeException {
+
+        private final transient SkuWriteResult written;
+
+        PartialImportException(SkuWriteResult written, List<String> failures) {
+            this(written, failures.size() + " import partition(s) failed: " + String.join("; ", failures));
+        }
+
+        PartialImportException(SkuWriteResult written, String message) {
+            super(message);
+            this.written = written;
+        }
+
+        /** Soma das partições que gravaram. */
+        public SkuWriteResult written() {
+            return written;
+        }
+    }
+}
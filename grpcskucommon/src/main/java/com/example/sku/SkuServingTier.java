@@ -0,0 +1,585 @@
+package com.example.sku;
+
+import com.google.protobuf.Timestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Camada de leitura em memória na frente de um {@link SkuStore} ({@code sku.serving-tier.enabled=true}), para
+ * servir as consultas por sku_id, warehouse_id e item_id sem ida ao banco. Os skus ficam em colunas de arrays
+ * primitivos, sem um objeto por sku, e os índices por warehouse_id e item_id são arrays de sku_id ordenados:
+ * a página por keyset é uma busca binária. Os protos só são montados na resposta.
+ * <p>
+ * A carga inicial lê a base inteira numa thread própria; até ela terminar as leituras vão ao motor.
+ * As gravações passam pelo motor e, quando alguma linha mudou, as linhas são relidas dele e aplicadas aqui
+ * (write-through). Se a releitura falhar a camada é recarregada. Gravações de outras instâncias ou feitas
+ * direto no banco não são vistas.
+ */
+public class SkuServingTier implements SkuStore, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuServingTier.class);
+
+    private final SkuStore backing;
+    private final int loadChunkSize;
+    private final Duration retryDelay;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean loadPending = new AtomicBoolean();
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sku-serving-tier-loader").daemon().factory());
+    private Table table = new Table();
+    private volatile boolean ready;
+
+    public SkuServingTier(SkuStore backing, int loadChunkSize, Duration retryDelay) {
+        this.backing = backing;
+        this.loadChunkSize = loadChunkSize;
+        this.retryDelay = retryDelay;
+    }
+
+    /** Dispara a carga inicial; as leituras seguem no motor até ela terminar. */
+    public void start() {
+        scheduleLoad(Duration.ZERO);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public SkuWriteResult save(Sku... skus) {
+        return writeThrough(skus, () -> backing.save(skus));
+    }
+
+    @Override
+    public SkuWriteResult bulkLoad(Sku... skus) {
+        return writeThrough(skus, () -> backing.bulkLoad(skus));
+    }
+
+    @Override
+    public Optional<com.example.sku.grpc.Sku> findById(long skuId) {
+        return read(table -> {
+            int row = table.rows.get(skuId);
+            return row < 0 ? Optional.empty() : Optional.of(table.toProto(row));
+        }, () -> backing.findById(skuId));
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> skuIds) {
+        return read(table -> {
+            List<com.example.sku.grpc.Sku> found = new ArrayList<>(skuIds.size());
+            for (long skuId : skuIds) {
+                int row = table.rows.get(skuId);
+                if (row >= 0) {
+                    found.add(table.toProto(row));
+                }
+            }
+            return found;
+        }, () -> backing.findByIds(skuIds));
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId) {
+        return read(table -> table.select(table.byWarehouse, warehouseId, null, Integer.MAX_VALUE),
+                () -> backing.findByWarehouseId(warehouseId));
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId) {
+        return read(table -> table.select(table.byItem, itemId, null, Integer.MAX_VALUE),
+                () -> backing.findByItemId(itemId));
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit) {
+        return read(table -> table.select(table.byWarehouse, warehouseId, afterSkuId, limit),
+                () -> backing.findByWarehouseId(warehouseId, afterSkuId, limit));
+    }
+
+    @Override
+    public List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit) {
+        return read(table -> table.select(table.byItem, itemId, afterSkuId, limit),
+                () -> backing.findByItemId(itemId, afterSkuId, limit));
+    }
+
+    // A lista é montada antes de entregar: o consumer pode bloquear esperando o cliente e não deve segurar o lock
+    @Override
+    public void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        List<com.example.sku.grpc.Sku> skus = read(table -> table.select(table.byWarehouse, warehouseId, null, Integer.MAX_VALUE), () -> null);
+        if (skus == null) {
+            backing.streamByWarehouseId(warehouseId, consumer);
+        } else {
+            skus.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer) {
+        List<com.example.sku.grpc.Sku> skus = read(table -> table.select(table.byItem, itemId, null, Integer.MAX_VALUE), () -> null);
+        if (skus == null) {
+            backing.streamByItemId(itemId, consumer);
+        } else {
+            skus.forEach(consumer);
+        }
+    }
+
+    // Quem percorre a base inteira é uma carga; ela lê do motor para não duplicar tudo em protos aqui
+    @Override
+    public void streamAll(Consumer<com.example.sku.grpc.Sku> consumer) {
+        backing.streamAll(consumer);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        loader.shutdownNow();
+        loader.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private <T> T read(Function<Table, T> fromTier, Supplier<T> fromBacking) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                return fromTier.apply(table);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return fromBacking.get();
+    }
+
+    private SkuWriteResult writeThrough(Sku[] entities, Supplier<SkuWriteResult> write) {
+        SkuWriteResult result;
+        try {
+            result = write.get();
+        } catch (RuntimeException e) {
+            // Uma gravação em blocos pode ter efetivado parte dos blocos antes de falhar
+            invalidate();
+            throw e;
+        }
+        if (result.applied() == 0) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(entities.length);
+        for (Sku entity : entities) {
+            ids.add(entity.getId());
+        }
+        try {
+            // A releitura traz o estado que o upsert condicional de fato deixou no motor
+            List<com.example.sku.grpc.Sku> written = backing.findByIds(ids);
+            lock.writeLock().lock();
+            try {
+                table.apply(written);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Serving tier out of sync after a write, reloading: {}", e.getMessage());
+            invalidate();
+        }
+        return result;
+    }
+
+    private void invalidate() {
+        ready = false;
+        scheduleLoad(Duration.ZERO);
+    }
+
+    private void scheduleLoad(Duration delay) {
+        if (loadPending.compareAndSet(false, true)) {
+            loader.schedule(this::load, delay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Gravações durante a carga entram na tabela nova; a carga e o write-through só trocam uma linha por outra
+    // de last_updated igual ou mais novo, então a ordem entre os dois não importa
+    private void load() {
+        loadPending.set(false);
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            table = new Table();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long start = System.nanoTime();
+        try {
+            List<com.example.sku.grpc.Sku> chunk = new ArrayList<>(loadChunkSize);
+            backing.streamAll(sku -> {
+                chunk.add(sku);
+                if (chunk.size() == loadChunkSize) {
+                    applyLoaded(chunk);
+                    chunk.clear();
+                }
+            });
+            applyLoaded(chunk);
+            int size;
+            lock.writeLock().lock();
+            try {
+                table.buildIndexes();
+                size = table.size;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Serving tier loaded {} skus in {} ms", size, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            logger.warn("Serving tier load failed, retrying in {}: {}", retryDelay, e.getMessage());
+            scheduleLoad(retryDelay);
+        }
+    }
+
+    private void applyLoaded(List<com.example.sku.grpc.Sku> chunk) {
+        lock.writeLock().lock();
+        try {
+            table.apply(chunk);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Uma linha por sku em arrays paralelos, localizada pelo sku_id em {@link #rows}. country_code e
+     * currency_code viram índices num dicionário de strings. Protegida pelo lock da camada.
+     */
+    private static final class Table {
+
+        private static final byte HAS_WAREHOUSE = 1;
+        private static final byte HAS_PRICE = 2;
+        private static final byte HAS_UPDATED = 4;
+        private static final long[] NONE = new long[0];
+
+        final RowIndex rows = new RowIndex();
+        final LongMap<long[]> byWarehouse = new LongMap<>();
+        final LongMap<long[]> byItem = new LongMap<>();
+        // Os índices só são montados no fim da carga; até lá apply só grava as colunas
+        boolean indexed;
+        int size;
+
+        private long[] skuIds = new long[1024];
+        private long[] warehouseIds = new long[1024];
+        private long[] itemIds = new long[1024];
+        private long[] priceNanos = new long[1024];
+        private long[] updatedSeconds = new long[1024];
+        private int[] updatedNanos = new int[1024];
+        private int[] amounts = new int[1024];
+        private short[] countryCodes = new short[1024];
+        private short[] currencyCodes = new short[1024];
+        private byte[] availability = new byte[1024];
+        private byte[] flags = new byte[1024];
+
+        private final List<String> dictionary = new ArrayList<>(List.of(""));
+        private final Map<String, Short> codes = new HashMap<>(Map.of("", (short) 0));
+
+        /** Cada sku_id aparece no máximo uma vez por chamada (releitura ou carga do motor). */
+        void apply(Collection<com.example.sku.grpc.Sku> skus) {
+            LongMap<KeyChange> warehouseChanges = new LongMap<>();
+            LongMap<KeyChange> itemChanges = new LongMap<>();
+            for (com.example.sku.grpc.Sku sku : skus) {
+                long skuId = sku.getSkuId();
+                int row = rows.get(skuId);
+                if (row < 0) {
+                    row = append(skuId);
+                    write(row, sku);
+                    if (indexed) {
+                        if (sku.hasWarehouseId()) {
+                            change(warehouseChanges, sku.getWarehouseId()).add(skuId);
+                        }
+                        change(itemChanges, sku.getItemId()).add(skuId);
+                    }
+                } else if (isSameOrNewer(sku, row)) {
+                    boolean hadWarehouse = (flags[row] & HAS_WAREHOUSE) != 0;
+                    long oldWarehouseId = warehouseIds[row];
+                    long oldItemId = itemIds[row];
+                    write(row, sku);
+                    if (indexed) {
+                        if (hadWarehouse != sku.hasWarehouseId() || oldWarehouseId != sku.getWarehouseId()) {
+                            if (hadWarehouse) {
+                                change(warehouseChanges, oldWarehouseId).remove(skuId);
+                            }
+                            if (sku.hasWarehouseId()) {
+                                change(warehouseChanges, sku.getWarehouseId()).add(skuId);
+                            }
+                        }
+                        if (oldItemId != sku.getItemId()) {
+                            change(itemChanges, oldItemId).remove(skuId);
+                            change(itemChanges, sku.getItemId()).add(skuId);
+                        }
+                    }
+                }
+            }
+            // Cada chave tocada é refeita uma vez por lote, não uma vez por sku
+            warehouseChanges.forEach((key, change) -> byWarehouse.put(key, change.mergeInto(byWarehouse.get(key))));
+            itemChanges.forEach((key, change) -> byItem.put(key, change.mergeInto(byItem.get(key))));
+        }
+
+        void buildIndexes() {
+            LongMap<KeyChange> warehouseChanges = new LongMap<>();
+            LongMap<KeyChange> itemChanges = new LongMap<>();
+            for (int row = 0; row < size; row++) {
+                if ((flags[row] & HAS_WAREHOUSE) != 0) {
+                    change(warehouseChanges, warehouseIds[row]).add(skuIds[row]);
+                }
+                change(itemChanges, itemIds[row]).add(skuIds[row]);
+            }
+            warehouseChanges.forEach((key, change) -> byWarehouse.put(key, change.mergeInto(null)));
+            itemChanges.forEach((key, change) -> byItem.put(key, change.mergeInto(null)));
+            indexed = true;
+        }
+
+        // afterSkuId nulo devolve todos os skus da chave
+        List<com.example.sku.grpc.Sku> select(LongMap<long[]> index, long key, Long afterSkuId, int limit) {
+            long[] sorted = index.get(key);
+            if (sorted == null) {
+                return List.of();
+            }
+            // sku_id é uint64 mas os bancos guardam BIGINT com sinal: a ordem segue a do long
+            int from = 0;
+            if (afterSkuId != null) {
+                from = Arrays.binarySearch(sorted, afterSkuId);
+                from = from >= 0 ? from + 1 : -from - 1;
+            }
+            int to = (int) Math.min(sorted.length, (long) from + limit);
+            List<com.example.sku.grpc.Sku> page = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                page.add(toProto(rows.get(sorted[i])));
+            }
+            return page;
+        }
+
+        com.example.sku.grpc.Sku toProto(int row) {
+            com.example.sku.grpc.Sku.Builder builder = com.example.sku.grpc.Sku.newBuilder()
+                    .setSkuId(skuIds[row])
+                    .setItemId(itemIds[row])
+                    .setAmount(amounts[row])
+                    .setCountryCode(dictionary.get(countryCodes[row] & 0xFFFF))
+                    .setAvailabilityTypeValue(availability[row]);
+            if ((flags[row] & HAS_WAREHOUSE) != 0) {
+                builder.setWarehouseId(warehouseIds[row]);
+            }
+            if ((flags[row] & HAS_PRICE) != 0) {
+                builder.setBasePrice(MoneyNanos.toMoney(priceNanos[row], dictionary.get(currencyCodes[row] & 0xFFFF)));
+            }
+            if ((flags[row] & HAS_UPDATED) != 0) {
+                builder.setLastUpdated(Timestamp.newBuilder()
+                        .setSeconds(updatedSeconds[row])
+                        .setNanos(updatedNanos[row]));
+            }
+            return builder.build();
+        }
+
+        private int append(long skuId) {
+            if (size == skuIds.length) {
+                int capacity = size + (size >> 1);
+                skuIds = Arrays.copyOf(skuIds, capacity);
+                warehouseIds = Arrays.copyOf(warehouseIds, capacity);
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                priceNanos = Arrays.copyOf(priceNanos, capacity);
+                updatedSeconds = Arrays.copyOf(updatedSeconds, capacity);
+                updatedNanos = Arrays.copyOf(updatedNanos, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                countryCodes = Arrays.copyOf(countryCodes, capacity);
+                currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+                availability = Arrays.copyOf(availability, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            int row = size++;
+            skuIds[row] = skuId;
+            rows.put(skuId, row);
+            return row;
+        }
+
+        private void write(int row, com.example.sku.grpc.Sku sku) {
+            byte rowFlags = 0;
+            warehouseIds[row] = sku.getWarehouseId();
+            if (sku.hasWarehouseId()) {
+                rowFlags |= HAS_WAREHOUSE;
+            }
+            itemIds[row] = sku.getItemId();
+            amounts[row] = sku.getAmount();
+            countryCodes[row] = code(sku.getCountryCode());
+            availability[row] = (byte) sku.getAvailabilityTypeValue();
+            if (sku.hasBasePrice()) {
+                rowFlags |= HAS_PRICE;
+                priceNanos[row] = MoneyNanos.toNanos(sku.getBasePrice());
+                currencyCodes[row] = code(sku.getBasePrice().getCurrencyCode());
+            }
+            if (sku.hasLastUpdated()) {
+                rowFlags |= HAS_UPDATED;
+                updatedSeconds[row] = sku.getLastUpdated().getSeconds();
+                updatedNanos[row] = sku.getLastUpdated().getNanos();
+            }
+            flags[row] = rowFlags;
+        }
+
+        // A releitura de uma gravação concorrente pode chegar depois de uma mais nova; ela não volta o estado
+        private boolean isSameOrNewer(com.example.sku.grpc.Sku sku, int row) {
+            if ((flags[row] & HAS_UPDATED) == 0) {
+                return true;
+            }
+            if (!sku.hasLastUpdated()) {
+                return false;
+            }
+            Timestamp incoming = sku.getLastUpdated();
+            return incoming.getSeconds() != updatedSeconds[row]
+                    ? incoming.getSeconds() > updatedSeconds[row]
+                    : incoming.getNanos() >= updatedNanos[row];
+        }
+
+        private short code(String value) {
+            Short code = codes.get(value);
+            if (code == null) {
+                if (dictionary.size() > 0xFFFF) {
+                    throw new IllegalStateException("Too many distinct country/currency codes for the serving tier");
+                }
+                code = (short) dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        private static KeyChange change(LongMap<KeyChange> changes, long key) {
+            KeyChange change = changes.get(key);
+            if (change == null) {
+                change = new KeyChange();
+                changes.put(key, change);
+            }
+            return change;
+        }
+    }
+
+    /** sku_ids que entram e saem de uma chave de índice num lote. */
+    private static final class KeyChange {
+
+        private long[] added = Table.NONE;
+        private int addedCount;
+        private long[] removed = Table.NONE;
+        private int removedCount;
+
+        void add(long skuId) {
+            if (addedCount == added.length) {
+                added = Arrays.copyOf(added, Math.max(4, addedCount * 2));
+            }
+            added[addedCount++] = skuId;
+        }
+
+        void remove(long skuId) {
+            if (removedCount == removed.length) {
+                removed = Arrays.copyOf(removed, Math.max(4, removedCount * 2));
+            }
+            removed[removedCount++] = skuId;
+        }
+
+        /** Intercala o array atual com os que entram, sem os que saem, num array novo do tamanho exato. */
+        long[] mergeInto(long[] current) {
+            if (current == null) {
+                current = Table.NONE;
+            }
+            Arrays.sort(added, 0, addedCount);
+            Arrays.sort(removed, 0, removedCount);
+            long[] merged = new long[current.length + addedCount];
+            int size = 0;
+            int c = 0;
+            int a = 0;
+            int r = 0;
+            while (c < current.length || a < addedCount) {
+                long next;
+                if (a == addedCount || (c < current.length && current[c] <= added[a])) {
+                    next = current[c++];
+                    while (r < removedCount && removed[r] < next) {
+                        r++;
+                    }
+                    if (r < removedCount && removed[r] == next) {
+                        continue;
+                    }
+                } else {
+                    next = added[a++];
+                }
+                if (size == 0 || merged[size - 1] != next) {
+                    merged[size++] = next;
+                }
+            }
+            return size == merged.length ? merged : Arrays.copyOf(merged, size);
+        }
+    }
+
+    /** sku_id → linha, em hash aberto com chaves {@code long} sem boxing; -1 quando ausente. */
+    private static final class RowIndex {
+
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+        private int zeroRow = -1;
+
+        int get(long key) {
+            if (key == 0) {
+                return zeroRow;
+            }
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int row) {
+            if (key == 0) {
+                zeroRow = row;
+                return;
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = row;
+                    return;
+                }
+            }
+            keys[i] = key;
+            values[i] = row;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    int i = slot(oldKeys[j], mask);
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
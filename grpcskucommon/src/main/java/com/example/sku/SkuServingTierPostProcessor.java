@@ -0,0 +1,57 @@
+package com.example.sku;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Coloca o {@link SkuServingTier} na frente do {@link SkuStore} quando {@code sku.serving-tier.enabled=true}.
+ * O motor em memória já responde da memória e fica de fora. A carga começa com a aplicação pronta, para não
+ * atrasar a subida; até lá as leituras vão ao motor.
+ */
+@Component
+@ConditionalOnProperty(name = "sku.serving-tier.enabled", havingValue = "true")
+public class SkuServingTierPostProcessor implements BeanPostProcessor, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final int loadChunkSize;
+    private final Duration retryDelay;
+    private final List<SkuServingTier> tiers = new CopyOnWriteArrayList<>();
+
+    public SkuServingTierPostProcessor(@Value("${sku.serving-tier.load-chunk-size:10000}") int loadChunkSize,
+                                       @Value("${sku.serving-tier.retry-delay:30s}") Duration retryDelay) {
+        this.loadChunkSize = loadChunkSize;
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof SkuStore store) || bean instanceof SkuServingTier
+                || InMemorySkuStore.class.isAssignableFrom(AopUtils.getTargetClass(bean))) {
+            return bean;
+        }
+        SkuServingTier tier = new SkuServingTier(store, loadChunkSize, retryDelay);
+        tiers.add(tier);
+        return tier;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        tiers.forEach(SkuServingTier::start);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (SkuServingTier tier : tiers) {
+            tier.close();
+        }
+    }
+}
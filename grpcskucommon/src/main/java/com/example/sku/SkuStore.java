@@ -0,0 +1,44 @@
+package com.example.sku;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Motor de armazenamento dos skus visto pelo {@link GrpcSkuService}. As gravações recebem a entidade e seguem a
+ * regra do upsert condicional (versões iguais ou mais antigas que a gravada são mantidas); as leituras devolvem
+ * o proto pronto para a resposta. Escolhido por {@code sku.store}: o banco do servidor ou {@code memory}.
+ */
+public interface SkuStore {
+
+    /** Upsert em lotes, para requisições pequenas e para o import em stream. */
+    SkuWriteResult save(Sku... skus);
+
+    /** Caminho de carga em massa do motor; quem não tem um usa o {@link #save}. */
+    default SkuWriteResult bulkLoad(Sku... skus) {
+        return save(skus);
+    }
+
+    Optional<com.example.sku.grpc.Sku> findById(long skuId);
+
+    /** Os ids não encontrados ficam fora da lista; a ordem não é garantida. */
+    List<com.example.sku.grpc.Sku> findByIds(Collection<? extends Long> skuIds);
+
+    List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId);
+
+    List<com.example.sku.grpc.Sku> findByItemId(long itemId);
+
+    /** Página por keyset: até {@code limit} skus com sku_id maior que {@code afterSkuId}, em ordem de sku_id. */
+    List<com.example.sku.grpc.Sku> findByWarehouseId(long warehouseId, long afterSkuId, int limit);
+
+    List<com.example.sku.grpc.Sku> findByItemId(long itemId, long afterSkuId, int limit);
+
+    /** Entrega os skus ao {@code consumer} conforme são lidos; uma exceção do consumer interrompe a leitura. */
+    void streamByWarehouseId(long warehouseId, Consumer<com.example.sku.grpc.Sku> consumer);
+
+    void streamByItemId(long itemId, Consumer<com.example.sku.grpc.Sku> consumer);
+
+    /** Percorre a base inteira, para carregar caches e camadas em memória. */
+    void streamAll(Consumer<com.example.sku.grpc.Sku> consumer);
+}
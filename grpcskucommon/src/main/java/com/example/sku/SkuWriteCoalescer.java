@@ -0,0 +1,306 @@
+package com.example.sku;
+
+import com.example.metrics.DbTime;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit dos imports pequenos ({@code sku.import.coalesce.enabled}): os skus de chamadas concorrentes
+ * esperam até {@code sku.import.coalesce.window} ou até somar {@code sku.import.coalesce.max-rows} e são
+ * gravados juntos numa única gravação do {@link SkuStore}. Com o padrão de 500 linhas, igual ao
+ * {@code sku.repository.batch-size}, o grupo é um único upsert multi-linha e um único commit.
+ * <p>
+ * Um sku_id repetido no grupo fica com o maior last_updated, como se as chamadas fossem gravadas uma após a
+ * outra pelo upsert condicional; no empate vale a que chegou por último. Cada chamada só retorna depois que o
+ * grupo inteiro foi gravado, ou ao fim do prazo da chamada gRPC (limitado a {@code sku.import.coalesce.timeout});
+ * se a gravação falha, todas as chamadas do grupo recebem o erro. Uma chamada cancelada pelo cliente enquanto
+ * espera na fila sai do grupo sem ser gravada.
+ * <p>
+ * O resultado devolvido é o da chamada: as suas linhas vencidas por outra versão no grupo contam como mantidas.
+ * O motor só devolve os totais do grupo, então quando o grupo mistura linhas aplicadas e mantidas esses totais
+ * são repartidos entre as chamadas na proporção das linhas de cada uma que chegaram ao banco. Se só parte das
+ * partições grava, cada chamada recebe um {@link SkuImportPartitioner.PartialImportException} com a sua parte
+ * do que foi gravado.
+ */
+@Component
+public class SkuWriteCoalescer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuWriteCoalescer.class);
+
+    private final SkuStore skuStore;
+    private final SkuImportPartitioner skuImportPartitioner;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxRows;
+    private final long timeoutNanos;
+    private final Thread flusher;
+    private final List<Pending> pending = new ArrayList<>();
+    private int pendingRows;
+    private boolean closed;
+
+    public SkuWriteCoalescer(SkuStore skuStore,
+                             SkuImportPartitioner skuImportPartitioner,
+                             @Value("${sku.import.coalesce.enabled:false}") boolean enabled,
+                             @Value("${sku.import.coalesce.window:5ms}") Duration window,
+                             @Value("${sku.import.coalesce.max-rows:500}") int maxRows,
+                             @Value("${sku.import.coalesce.timeout:30s}") Duration timeout) {
+        this.skuStore = skuStore;
+        this.skuImportPartitioner = skuImportPartitioner;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxRows = maxRows;
+        this.timeoutNanos = timeout.toNanos();
+        this.flusher = enabled ? Thread.ofPlatform().name("sku-write-coalescer").daemon().start(this::run) : null;
+    }
+
+    /** Chamadas menores que um grupo cheio; as maiores já são um lote e vão direto ao motor. */
+    public boolean accepts(int skus) {
+        return enabled && skus > 0 && skus < maxRows;
+    }
+
+    /**
+     * Espera o grupo de {@code skus} ser gravado e devolve o resultado desta chamada.
+     *
+     * @throws IllegalStateException se o grupo não terminar dentro do prazo da chamada
+     */
+    public SkuWriteResult write(Sku... skus) {
+        // Validado antes de entrar no grupo: um sku inválido não pode derrubar as chamadas dos outros
+        for (Sku sku : skus) {
+            if (sku.getId() == null) {
+                throw new IllegalArgumentException("sku_id is required");
+            }
+        }
+        Pending request = new Pending(skus);
+        synchronized (pending) {
+            if (closed) {
+                throw new IllegalStateException("Sku write coalescer is closed");
+            }
+            pending.add(request);
+            pendingRows += skus.length;
+            // O flusher acorda na primeira chamada (abre a janela) e quando o grupo enche
+            if (pending.size() == 1 || pendingRows >= maxRows) {
+                pending.notifyAll();
+            }
+        }
+        Deadline deadline = Context.current().getDeadline();
+        long timeout = deadline != null ? Math.min(timeoutNanos, deadline.timeRemaining(TimeUnit.NANOSECONDS)) : timeoutNanos;
+        try {
+            return request.done.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Ainda na fila sai do grupo; já em gravação pode ou não ter sido gravado
+            boolean dequeued;
+            synchronized (pending) {
+                dequeued = pending.remove(request);
+                if (dequeued) {
+                    pendingRows -= skus.length;
+                }
+            }
+            throw new IllegalStateException(dequeued
+                    ? "Group commit did not start before the call deadline, no skus were written"
+                    : "Group commit did not finish before the call deadline, skus may have been written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the group commit", e);
+        } finally {
+            // O grupo gravou na thread do flusher; cada chamada do grupo esperou o tempo de banco inteiro
+            DbTime.add(request.dbNanos);
+        }
+    }
+
+    // Enquanto um grupo grava, as chamadas seguintes se acumulam e formam o próximo
+    private void run() {
+        try {
+            while (true) {
+                List<Pending> group = nextGroup();
+                if (group == null) {
+                    return;
+                }
+                // Vazio quando as chamadas da janela desistiram por prazo antes do grupo fechar
+                if (!group.isEmpty()) {
+                    flush(group);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Pending> nextGroup() throws InterruptedException {
+        synchronized (pending) {
+            while (pending.isEmpty() && !closed) {
+                pending.wait();
+            }
+            if (closed) {
+                return null;
+            }
+            long deadline = pending.getFirst().arrivedNanos + windowNanos;
+            long remaining;
+            while (pendingRows < maxRows && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(pending, remaining);
+            }
+            // Chamadas inteiras, na ordem de chegada, até encher o grupo; a primeira sempre entra
+            List<Pending> group = new ArrayList<>();
+            int rows = 0;
+            while (!pending.isEmpty() && (group.isEmpty() || rows + pending.getFirst().skus.length <= maxRows)) {
+                Pending next = pending.removeFirst();
+                pendingRows -= next.skus.length;
+                // Cancelada (cliente ou deadline) enquanto esperava: não grava o que ninguém vai confirmar
+                if (next.context.isCancelled()) {
+                    next.done.completeExceptionally(new IllegalStateException(
+                            "Call cancelled before the group commit, no skus were written"));
+                    continue;
+                }
+                group.add(next);
+                rows += next.skus.length;
+            }
+            return group;
+        }
+    }
+
+    private void flush(List<Pending> group) {
+        // Versão vencedora de cada sku_id no grupo e a chamada que a enviou
+        Map<Long, Integer> owner = new HashMap<>();
+        Map<Long, Sku> newest = new HashMap<>();
+        int rows = 0;
+        for (int caller = 0; caller < group.size(); caller++) {
+            for (Sku sku : group.get(caller).skus) {
+                rows++;
+                Sku kept = newest.get(sku.getId());
+                if (kept == null || SkuImportPartitioner.supersedes(sku, kept)) {
+                    newest.put(sku.getId(), sku);
+                    owner.put(sku.getId(), caller);
+                }
+            }
+        }
+        int[] written = new int[group.size()];
+        owner.values().forEach(caller -> written[caller]++);
+        try {
+            SkuWriteResult result = DbTime.measure(
+                    () -> skuImportPartitioner.write(newest.values().toArray(new Sku[0]), skuStore::save),
+                    dbNanos -> group.forEach(request -> request.dbNanos = dbNanos));
+            logger.debug("Group commit of {} skus from {} calls: {}", rows, group.size(), result);
+            int[] callerRows = new int[group.size()];
+            for (int caller = 0; caller < group.size(); caller++) {
+                callerRows[caller] = group.get(caller).skus.length;
+            }
+            SkuWriteResult[] results = split(result, written, callerRows);
+            for (int caller = 0; caller < group.size(); caller++) {
+                group.get(caller).done.complete(results[caller]);
+            }
+        } catch (SkuImportPartitioner.PartialImportException e) {
+            logger.warn("Group commit of {} skus from {} calls partially failed: {}", rows, group.size(), e.getMessage());
+            // Só as linhas das partições que gravaram contam, repartidas como no sucesso
+            int[] writtenRows = share(e.written().rows(), written);
+            SkuWriteResult[] results = split(e.written(), writtenRows, writtenRows);
+            for (int caller = 0; caller < group.size(); caller++) {
+                group.get(caller).done.completeExceptionally(
+                        new SkuImportPartitioner.PartialImportException(results[caller], e.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Group commit of {} skus from {} calls failed: {}", rows, group.size(), e.getMessage());
+            group.forEach(request -> request.done.completeExceptionally(e));
+        }
+    }
+
+    // Inseridas e alteradas repartidas pelas linhas gravadas de cada chamada; o resto das suas linhas é mantido
+    private static SkuWriteResult[] split(SkuWriteResult result, int[] written, int[] rows) {
+        int[] inserted = share(result.inserted(), written);
+        int[] updated = share(result.updated(), subtract(written, inserted));
+        SkuWriteResult[] results = new SkuWriteResult[written.length];
+        for (int caller = 0; caller < written.length; caller++) {
+            results[caller] = new SkuWriteResult(rows[caller], inserted[caller], updated[caller],
+                    rows[caller] - inserted[caller] - updated[caller], result.chunks());
+        }
+        return results;
+    }
+
+    /**
+     * Reparte {@code total} entre as chamadas na proporção de {@code capacity}, sem passar da capacidade de
+     * nenhuma; as sobras do arredondamento vão para as maiores frações. Com {@code total} zero ou igual à soma
+     * das capacidades a divisão é exata.
+     */
+    static int[] share(int total, int[] capacity) {
+        long sum = 0;
+        for (int c : capacity) {
+            sum += c;
+        }
+        int[] shares = new int[capacity.length];
+        if (sum == 0) {
+            return shares;
+        }
+        long[] remainders = new long[capacity.length];
+        int left = total;
+        for (int i = 0; i < capacity.length; i++) {
+            long scaled = (long) total * capacity[i];
+            shares[i] = (int) (scaled / sum);
+            remainders[i] = scaled % sum;
+            left -= shares[i];
+        }
+        for (; left > 0; left--) {
+            int largest = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
+                }
+            }
+            shares[largest]++;
+            remainders[largest] = -1;
+        }
+        return shares;
+    }
+
+    private static int[] subtract(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        List<Pending> abandoned;
+        synchronized (pending) {
+            closed = true;
+            abandoned = new ArrayList<>(pending);
+            pending.clear();
+            pending.notifyAll();
+        }
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        IllegalStateException shutdown = new IllegalStateException("Server shutting down before the group commit");
+        abandoned.forEach(request -> request.done.completeExceptionally(shutdown));
+    }
+
+    private static final class Pending {
+
+        final Sku[] skus;
+        final long arrivedNanos = System.nanoTime();
+        // Contexto da chamada gRPC que enfileirou, cancelado pelo transporte
+        final Context context = Context.current();
+        // Tempo de banco do grupo, escrito pelo flusher antes de completar done
+        volatile long dbNanos;
+        final CompletableFuture<SkuWriteResult> done = new CompletableFuture<>();
+
+        Pending(Sku[] skus) {
+            this.skus = skus;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sku;
+
+/**
+ * Resultado de uma gravação em lote de skus no banco.
+ *
+ * @param rows     skus enviados ao banco
+ * @param inserted linhas (ou documentos) novos
+ * @param updated  linhas (ou documentos) existentes que foram atualizados
+ * @param skipped  skus ignorados por serem iguais aos gravados ou mais antigos
+ * @param chunks   quantidade de blocos executados (statements/transações no JDBC, bulkWrite no Mongo)
+ */
+public record SkuWriteResult(int rows, int inserted, int updated, int skipped, int chunks) {
+
+    public static final SkuWriteResult EMPTY = new SkuWriteResult(0, 0, 0, 0, 0);
+
+    /** Skus que de fato mudaram o banco. */
+    public int applied() {
+        return inserted + updated;
+    }
+
+    public SkuWriteResult plus(SkuWriteResult other) {
+        return new SkuWriteResult(rows + other.rows, inserted + other.inserted,
+                updated + other.updated, skipped + other.skipped, chunks + other.chunks);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.metrics;
+
+import com.example.sku.InMemorySkuStore;
+import com.example.sku.Sku;
+import com.example.sku.SkuImportPartitioner;
+import com.example.sku.SkuStore;
+import com.example.sku.SkuWriteCoalescer;
+import com.example.sku.SkuWriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DbTimeTest {
+
+    private static final long SAVE_MILLIS = 50;
+
+    private final SkuStore store = (SkuStore) new DbMetricsPostProcessor(
+            new StaticListableBeanFactory(Map.of("registry", new SimpleMeterRegistry()))
+                    .getBeanProvider(MeterRegistry.class))
+            .postProcessAfterInitialization(new SlowStore(), "skuStore");
+    private final SkuImportPartitioner partitioner = new SkuImportPartitioner(2, 1);
+    private final CallTimings timings = new CallTimings();
+    private CallTimings previous;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        CallTimings.restore(previous);
+        partitioner.close();
+    }
+
+    @Test
+    void partitionsWrittenInThePoolCountAsDbTimeOfTheCall() {
+        previous = CallTimings.bind(timings);
+
+        SkuWriteResult result = partitioner.write(new Sku[]{sku(1), sku(2), sku(3), sku(4)}, store::save);
+
+        assertThat(result.chunks()).isEqualTo(2);
+        // As duas partições gravaram nas threads do pool, fora desta
+        assertThat(timings.dbNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(SAVE_MILLIS).toNanos());
+    }
+
+    @Test
+    void groupCommitDbTimeReachesTheWaitingCall() throws InterruptedException {
+        SkuWriteCoalescer coalescer = new SkuWriteCoalescer(store, partitioner, true, Duration.ofMillis(1), 500,
+                Duration.ofSeconds(30));
+        try {
+            previous = CallTimings.bind(timings);
+
+            coalescer.write(sku(1));
+
+            assertThat(timings.dbNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(SAVE_MILLIS).toNanos());
+        } finally {
+            coalescer.close();
+        }
+    }
+
+    private static Sku sku(long skuId) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        return sku;
+    }
+
+    private static final class SlowStore extends InMemorySkuStore {
+
+        @Override
+        public SkuWriteResult save(Sku... skus) {
+            try {
+                Thread.sleep(SAVE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new SkuWriteResult(skus.length, skus.length, 0, 0, 1);
+        }
+    }
+}
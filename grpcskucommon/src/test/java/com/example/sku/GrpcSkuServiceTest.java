@@ -0,0 +1,158 @@
+package com.example.sku;
+
+import com.example.sku.grpc.SkuByWarehouseRequest;
+import com.example.sku.grpc.SkuListResponse;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrpcSkuServiceTest {
+
+    private final InMemorySkuStore store = new InMemorySkuStore();
+    private final SkuChangeFeed feed = new SkuChangeFeed(Duration.ofMillis(10), 2, 500);
+    private final SkuImportPartitioner partitioner = new SkuImportPartitioner(1, 2000);
+    private final SkuWriteCoalescer coalescer =
+            new SkuWriteCoalescer(store, partitioner, false, Duration.ofMillis(1), 500, Duration.ofSeconds(30));
+    // Páginas de 2 skus no stream
+    private final GrpcSkuService service = new GrpcSkuService(store,
+            new SkuCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10)),
+            feed, partitioner, coalescer, 1000, 2, 1000, 1000, 5000);
+
+    @BeforeEach
+    void load() {
+        store.save(sku(1, 10), sku(2, 10), sku(3, 10), sku(4, 20), sku(5, 10));
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        coalescer.close();
+        partitioner.close();
+        feed.close();
+    }
+
+    @Test
+    void streamSendsPagesOnlyWhileTheTransportIsReady() {
+        FakeObserver observer = new FakeObserver();
+        observer.readyFor = 1;
+
+        service.streamByWarehouse(SkuByWarehouseRequest.newBuilder().setWarehouseId(10).build(), observer);
+        // O handler só registra os callbacks: nada é lido antes do transporte ficar pronto
+        assertThat(observer.messages).isEmpty();
+
+        observer.onReady.run();
+        assertThat(observer.skuIds()).containsExactly(1L, 2L);
+        assertThat(observer.completed).isFalse();
+
+        observer.readyFor = Integer.MAX_VALUE;
+        observer.onReady.run();
+        assertThat(observer.skuIds()).containsExactly(1L, 2L, 3L, 5L);
+        assertThat(observer.messages).hasSize(2);
+        assertThat(observer.completed).isTrue();
+    }
+
+    @Test
+    void cancelledStreamStopsReading() {
+        FakeObserver observer = new FakeObserver();
+        observer.readyFor = 1;
+
+        service.streamByWarehouse(SkuByWarehouseRequest.newBuilder().setWarehouseId(10).build(), observer);
+        observer.onReady.run();
+        observer.onCancel.run();
+        observer.readyFor = Integer.MAX_VALUE;
+        observer.onReady.run();
+
+        assertThat(observer.skuIds()).containsExactly(1L, 2L);
+        assertThat(observer.completed).isFalse();
+    }
+
+    private static Sku sku(long skuId, long warehouseId) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setWarehouseId(warehouseId);
+        sku.setItemId(100L);
+        sku.setCountryCode("BRA");
+        sku.setAvailabilityType(AvailabilityType.READY_TO_SHIP);
+        sku.setCurrencyCode("BRL");
+        sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, 1, 0, ZoneOffset.UTC));
+        return sku;
+    }
+
+    /** Fica pronto para {@code readyFor} mensagens e então deixa de aceitar até o teste liberar de novo. */
+    private static final class FakeObserver extends ServerCallStreamObserver<SkuListResponse> {
+
+        final List<SkuListResponse> messages = new ArrayList<>();
+        int readyFor;
+        boolean completed;
+        Runnable onReady;
+        Runnable onCancel;
+
+        List<Long> skuIds() {
+            return messages.stream()
+                    .flatMap(message -> message.getSkusList().stream())
+                    .map(com.example.sku.grpc.Sku::getSkuId)
+                    .toList();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancel = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return readyFor > 0;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReady = onReadyHandler;
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void onNext(SkuListResponse value) {
+            messages.add(value);
+            readyFor--;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new AssertionError(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
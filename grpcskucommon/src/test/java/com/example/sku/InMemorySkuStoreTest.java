@@ -0,0 +1,53 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySkuStoreTest {
+
+    private final InMemorySkuStore store = new InMemorySkuStore();
+
+    @Test
+    void olderOrEqualVersionIsKept() {
+        store.save(sku(1, 5, 10));
+
+        assertThat(store.save(sku(1, 4, 20)).skipped()).isEqualTo(1);
+        assertThat(store.save(sku(1, 6, 30)).updated()).isEqualTo(1);
+        assertThat(store.findById(1L)).get().extracting(com.example.sku.grpc.Sku::getAmount).isEqualTo(30);
+    }
+
+    @Test
+    void storedSkuWithoutLastUpdatedIsReplaced() {
+        store.save(sku(1, null, 10));
+
+        assertThat(store.save(sku(1, 1, 20)).updated()).isEqualTo(1);
+        assertThat(store.findById(1L)).get().extracting(com.example.sku.grpc.Sku::getAmount).isEqualTo(20);
+    }
+
+    @Test
+    void incomingSkuWithoutLastUpdatedDoesNotReplaceADatedOne() {
+        store.save(sku(1, 1, 10));
+
+        assertThat(store.save(sku(1, null, 20)).skipped()).isEqualTo(1);
+        assertThat(store.findById(1L)).get().extracting(com.example.sku.grpc.Sku::getAmount).isEqualTo(10);
+    }
+
+    private static Sku sku(long skuId, Integer lastUpdatedSecond, int amount) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setWarehouseId(10L);
+        sku.setItemId(100L);
+        sku.setAmount(amount);
+        sku.setCountryCode("BRA");
+        sku.setAvailabilityType(AvailabilityType.READY_TO_SHIP);
+        sku.setCurrencyCode("BRL");
+        if (lastUpdatedSecond != null) {
+            sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, lastUpdatedSecond, 0, ZoneOffset.UTC));
+        }
+        return sku;
+    }
+}
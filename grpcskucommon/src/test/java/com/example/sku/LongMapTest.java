@@ -0,0 +1,65 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongMapTest {
+
+    @Test
+    void keepsEveryKeyAcrossResizes() {
+        LongMap<String> map = new LongMap<>();
+        // Chaves que só diferem nos 32 bits altos: o slot precisa espalhá-las para a tabela continuar curta
+        for (long i = 1; i <= 10_000; i++) {
+            map.put(i << 32, "v" + i);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long i = 1; i <= 10_000; i++) {
+            assertThat(map.get(i << 32)).isEqualTo("v" + i);
+        }
+        assertThat(map.get(10_001L << 32)).isNull();
+    }
+
+    @Test
+    void zeroAndNegativeKeys() {
+        LongMap<String> map = new LongMap<>();
+        map.put(0, "zero");
+        map.put(-1, "minus one");
+        map.put(Long.MIN_VALUE, "min");
+
+        assertThat(map.get(0)).isEqualTo("zero");
+        assertThat(map.get(-1)).isEqualTo("minus one");
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo("min");
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @Test
+    void putReplacesWithoutGrowing() {
+        LongMap<String> map = new LongMap<>();
+        map.put(7, "a");
+        map.put(7, "b");
+        map.put(0, "a");
+        map.put(0, "b");
+
+        assertThat(map.get(7)).isEqualTo("b");
+        assertThat(map.get(0)).isEqualTo("b");
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        LongMap<Long> map = new LongMap<>();
+        for (long i = -50; i <= 50; i++) {
+            map.put(i, i * 10);
+        }
+
+        Map<Long, Long> seen = new HashMap<>();
+        map.forEach((key, value) -> assertThat(seen.put(key, value)).isNull());
+
+        assertThat(seen).hasSize(101).containsEntry(0L, 0L).containsEntry(-50L, -500L).containsEntry(50L, 500L);
+    }
+}
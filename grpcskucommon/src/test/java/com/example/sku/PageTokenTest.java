@@ -0,0 +1,58 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageTokenTest {
+
+    @Test
+    void roundTripsTheLastSkuId() {
+        String token = PageToken.encode(PageToken.WAREHOUSE, 42, 1_000_001);
+
+        assertThat(PageToken.decode(token, PageToken.WAREHOUSE, 42)).isEqualTo(1_000_001);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = PageToken.encode(PageToken.ITEM, -1, Long.MAX_VALUE);
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(PageToken.decode(token, PageToken.ITEM, -1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void emptyTokenStartsAtTheFirstPage() {
+        assertThat(PageToken.decode(null, PageToken.ITEM, 7)).isEqualTo(Long.MIN_VALUE);
+        assertThat(PageToken.decode("", PageToken.ITEM, 7)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void rejectsTokenFromAnotherFilterValue() {
+        String token = PageToken.encode(PageToken.WAREHOUSE, 42, 10);
+
+        assertThatThrownBy(() -> PageToken.decode(token, PageToken.WAREHOUSE, 43))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not belong");
+    }
+
+    @Test
+    void rejectsTokenFromAnotherFilterKind() {
+        String token = PageToken.encode(PageToken.WAREHOUSE, 42, 10);
+
+        assertThatThrownBy(() -> PageToken.decode(token, PageToken.ITEM, 42))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not belong");
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatThrownBy(() -> PageToken.decode("not base64!", PageToken.ITEM, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed");
+        assertThatThrownBy(() -> PageToken.decode("AAAA", PageToken.ITEM, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed");
+    }
+}
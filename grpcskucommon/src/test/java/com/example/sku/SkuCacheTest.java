@@ -0,0 +1,78 @@
+package com.example.sku;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkuCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SkuCache cache = new SkuCache(registry, 1000, Duration.ofMinutes(10));
+
+    @Test
+    void getAllLoadsOnlyMissingIdsAndCachesThem() {
+        AtomicInteger loads = new AtomicInteger();
+        Map<Long, com.example.sku.grpc.Sku> first = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loads.incrementAndGet();
+            assertThat(List.<Long>copyOf(ids)).containsExactlyInAnyOrder(1L, 2L, 3L);
+            return Map.of(1L, proto(1, 10), 2L, proto(2, 20));
+        });
+        assertThat(first).containsOnlyKeys(1L, 2L);
+
+        Map<Long, com.example.sku.grpc.Sku> second = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loads.incrementAndGet();
+            assertThat(List.<Long>copyOf(ids)).containsExactly(3L);
+            return Map.of();
+        });
+        assertThat(second).containsOnlyKeys(1L, 2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void exportsHitsAndMissesToMicrometer() {
+        cache.get(1L, id -> proto(1, 1));
+        cache.get(1L, id -> proto(1, 1));
+
+        assertThat(registry.get("cache.gets").tag("cache", "sku").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "sku").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void invalidationDuringBulkLoadWinsOverTheLoadedRow() {
+        // Lê a versão antiga, e o import grava e invalida antes da carga guardar o resultado
+        Map<Long, com.example.sku.grpc.Sku> found = cache.getAll(List.of(7L), ids -> {
+            cache.invalidate(entity(7));
+            return Map.of(7L, proto(7, 1));
+        });
+        assertThat(found.get(7L).getAmount()).isEqualTo(1);
+
+        com.example.sku.grpc.Sku reloaded = cache.get(7L, id -> proto(7, 2));
+        assertThat(reloaded.getAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateRemovesCachedSku() {
+        cache.get(5L, id -> proto(5, 1));
+        cache.invalidate(entity(5));
+
+        assertThat(cache.get(5L, id -> proto(5, 2)).getAmount()).isEqualTo(2);
+    }
+
+    private static com.example.sku.grpc.Sku proto(long skuId, int amount) {
+        return com.example.sku.grpc.Sku.newBuilder().setSkuId(skuId).setAmount(amount).build();
+    }
+
+    private static Sku entity(long skuId) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        return sku;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.sku;
+
+import com.example.sku.grpc.Sku;
+import com.example.sku.grpc.SkuChangeBatch;
+import com.example.sku.grpc.SkuWatchRequest;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SkuChangeFeedTest {
+
+    private final SkuChangeFeed feed = new SkuChangeFeed(Duration.ofMillis(10), 2, 500);
+
+    @AfterEach
+    void close() throws InterruptedException {
+        feed.close();
+    }
+
+    @Test
+    void publishedSkusReachMatchingSubscribers() {
+        FakeObserver byWarehouse = new FakeObserver();
+        FakeObserver byItem = new FakeObserver();
+        feed.subscribe(SkuWatchRequest.newBuilder().setWarehouseId(1).build(), byWarehouse);
+        feed.subscribe(SkuWatchRequest.newBuilder().setItemId(9).build(), byItem);
+
+        feed.publish(List.of(sku(10, 1, 5), sku(11, 2, 9)));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(byWarehouse.skuIds()).containsExactly(10L);
+            assertThat(byItem.skuIds()).containsExactly(11L);
+        });
+    }
+
+    @Test
+    void subscriberFallingBehindIsDroppedWithResourceExhausted() {
+        FakeObserver slow = new FakeObserver();
+        slow.ready = false;
+        feed.subscribe(SkuWatchRequest.getDefaultInstance(), slow);
+
+        feed.publish(List.of(sku(1, 1, 1), sku(2, 1, 1), sku(3, 1, 1)));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> slow.error != null);
+        assertThat(Status.fromThrowable(slow.error).getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(feed.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    void cancelledCallIsNotLeftSubscribed() {
+        FakeObserver cancelled = new FakeObserver();
+        cancelled.cancelled = true;
+
+        feed.subscribe(SkuWatchRequest.getDefaultInstance(), cancelled);
+
+        assertThat(feed.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    void cancelHandlerRemovesSubscriber() {
+        FakeObserver observer = new FakeObserver();
+        feed.subscribe(SkuWatchRequest.getDefaultInstance(), observer);
+        assertThat(feed.hasSubscribers()).isTrue();
+
+        observer.onCancel.run();
+
+        assertThat(feed.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    void resyncAllSendsResyncRequired() {
+        FakeObserver observer = new FakeObserver();
+        feed.subscribe(SkuWatchRequest.getDefaultInstance(), observer);
+
+        feed.resyncAll();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> observer.batches.stream().anyMatch(SkuChangeBatch::getResyncRequired));
+        assertThat(feed.hasSubscribers()).isTrue();
+    }
+
+    private static Sku sku(long skuId, long warehouseId, long itemId) {
+        return Sku.newBuilder().setSkuId(skuId).setWarehouseId(warehouseId).setItemId(itemId).build();
+    }
+
+    private static final class FakeObserver extends ServerCallStreamObserver<SkuChangeBatch> {
+
+        final List<SkuChangeBatch> batches = new CopyOnWriteArrayList<>();
+        volatile boolean ready = true;
+        volatile boolean cancelled;
+        volatile Throwable error;
+        volatile Runnable onCancel;
+
+        List<Long> skuIds() {
+            return batches.stream().flatMap(batch -> batch.getSkusList().stream()).map(Sku::getSkuId).toList();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancel = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void onNext(SkuChangeBatch value) {
+            batches.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
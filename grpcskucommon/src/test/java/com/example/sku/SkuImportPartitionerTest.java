@@ -0,0 +1,129 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkuImportPartitionerTest {
+
+    private final SkuImportPartitioner partitioner = new SkuImportPartitioner(4, 10);
+    private final List<Sku[]> slices = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void close() throws InterruptedException {
+        partitioner.close();
+    }
+
+    @Test
+    void smallImportIsOneSortedPartition() {
+        SkuWriteResult result = partitioner.write(new Sku[]{sku(3, 1), sku(1, 1), sku(2, 1)}, this::record);
+
+        assertThat(slices).hasSize(1);
+        assertThat(ids(slices.getFirst())).containsExactly(1L, 2L, 3L);
+        assertThat(result).isEqualTo(new SkuWriteResult(3, 3, 0, 0, 1));
+    }
+
+    @Test
+    void largeImportIsSplitIntoDisjointSkuIdRanges() {
+        Sku[] skus = new Sku[40];
+        for (int i = 0; i < skus.length; i++) {
+            skus[i] = sku(skus.length - i, 1);
+        }
+
+        SkuWriteResult result = partitioner.write(skus, this::record);
+
+        assertThat(slices).hasSize(4);
+        slices.sort((a, b) -> Long.compare(a[0].getId(), b[0].getId()));
+        long expected = 1;
+        for (Sku[] slice : slices) {
+            assertThat(slice).hasSize(10);
+            for (Sku sku : slice) {
+                assertThat(sku.getId()).isEqualTo(expected++);
+            }
+        }
+        assertThat(result).isEqualTo(new SkuWriteResult(40, 40, 0, 0, 4));
+    }
+
+    @Test
+    void partitionCountIsCappedByParallelismAndMinimumSize() {
+        Sku[] skus = new Sku[25];
+        for (int i = 0; i < skus.length; i++) {
+            skus[i] = sku(i + 1, 1);
+        }
+
+        partitioner.write(skus, this::record);
+
+        // 25 / 10 = 2 partições, não as 4 de sku.import.parallelism
+        assertThat(slices).hasSize(2);
+    }
+
+    @Test
+    void duplicatesKeepTheNewestVersion() {
+        Sku newer = sku(1, 3);
+        Sku older = sku(1, 2);
+        Sku tie = sku(2, 5);
+        Sku laterTie = sku(2, 5);
+
+        partitioner.write(new Sku[]{newer, older, tie, laterTie}, this::record);
+
+        assertThat(slices.getFirst()).containsExactly(newer, laterTie);
+    }
+
+    @Test
+    void failedPartitionsAreReportedWithTheWrittenOnes() {
+        Sku[] skus = new Sku[40];
+        for (int i = 0; i < skus.length; i++) {
+            skus[i] = sku(i + 1, 1);
+        }
+
+        assertThatThrownBy(() -> partitioner.write(skus, slice -> {
+            if (slice[0].getId() == 11 || slice[0].getId() == 31) {
+                throw new IllegalStateException("deadlock");
+            }
+            return record(slice);
+        }))
+                .isInstanceOfSatisfying(SkuImportPartitioner.PartialImportException.class, e -> {
+                    assertThat(e.written()).isEqualTo(new SkuWriteResult(20, 20, 0, 0, 2));
+                    assertThat(e.getMessage())
+                            .startsWith("2 import partition(s) failed")
+                            .contains("partition 2/4 (sku_id 11..20, 10 skus): deadlock")
+                            .contains("partition 4/4 (sku_id 31..40, 10 skus): deadlock");
+                });
+    }
+
+    @Test
+    void rejectsSkuWithoutId() {
+        assertThatThrownBy(() -> partitioner.write(new Sku[]{new Sku()}, this::record))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("sku_id is required");
+        assertThat(slices).isEmpty();
+    }
+
+    private SkuWriteResult record(Sku[] slice) {
+        slices.add(slice);
+        return new SkuWriteResult(slice.length, slice.length, 0, 0, 1);
+    }
+
+    private static List<Long> ids(Sku[] skus) {
+        List<Long> ids = new ArrayList<>(skus.length);
+        for (Sku sku : skus) {
+            ids.add(sku.getId());
+        }
+        return ids;
+    }
+
+    private static Sku sku(long skuId, int lastUpdatedSecond) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, lastUpdatedSecond, 0, ZoneOffset.UTC));
+        return sku;
+    }
+}
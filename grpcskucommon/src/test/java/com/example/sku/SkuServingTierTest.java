@@ -0,0 +1,104 @@
+package com.example.sku;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SkuServingTierTest {
+
+    private final InMemorySkuStore backing = new InMemorySkuStore();
+    private SkuServingTier tier;
+
+    @BeforeEach
+    void load() {
+        backing.save(sku(1, 10L, 100, 1, 5), sku(2, 10L, 100, 1, 6), sku(3, 20L, 200, 1, 7), sku(4, null, 200, 1, 8));
+        // Blocos pequenos para a carga passar por vários apply antes de montar os índices
+        tier = new SkuServingTier(backing, 2, Duration.ofMillis(10));
+        tier.start();
+        await().atMost(Duration.ofSeconds(5)).until(tier::isReady);
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        tier.close();
+    }
+
+    @Test
+    void servesTheLoadedSkus() {
+        assertThat(tier.findById(3)).hasValueSatisfying(sku -> assertThat(sku.getAmount()).isEqualTo(7));
+        assertThat(tier.findById(99)).isEmpty();
+        assertThat(ids(tier.findByIds(List.of(1L, 4L, 99L)))).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(ids(tier.findByWarehouseId(10))).containsExactly(1L, 2L);
+        assertThat(ids(tier.findByItemId(200))).containsExactly(3L, 4L);
+        assertThat(tier.findById(4).orElseThrow().hasWarehouseId()).isFalse();
+    }
+
+    @Test
+    void pagesByKeyset() {
+        assertThat(ids(tier.findByWarehouseId(10, Long.MIN_VALUE, 1))).containsExactly(1L);
+        assertThat(ids(tier.findByWarehouseId(10, 1, 1))).containsExactly(2L);
+        assertThat(tier.findByWarehouseId(10, 2, 1)).isEmpty();
+    }
+
+    @Test
+    void insertedSkuJoinsItsIndexes() {
+        SkuWriteResult result = tier.save(sku(5, 10L, 300, 1, 9));
+
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(ids(tier.findByWarehouseId(10))).containsExactly(1L, 2L, 5L);
+        assertThat(ids(tier.findByItemId(300))).containsExactly(5L);
+        assertThat(tier.findById(5)).isPresent();
+    }
+
+    @Test
+    void updatedSkuMovesBetweenWarehouses() {
+        tier.save(sku(1, 20L, 100, 2, 50));
+
+        assertThat(ids(tier.findByWarehouseId(10))).containsExactly(2L);
+        assertThat(ids(tier.findByWarehouseId(20))).containsExactly(1L, 3L);
+        assertThat(tier.findById(1).orElseThrow().getAmount()).isEqualTo(50);
+    }
+
+    @Test
+    void skuLeavingItsLastWarehouseLeavesAnEmptyKey() {
+        tier.save(sku(3, null, 200, 2, 7));
+
+        assertThat(tier.findByWarehouseId(20)).isEmpty();
+        assertThat(tier.findById(3).orElseThrow().hasWarehouseId()).isFalse();
+    }
+
+    @Test
+    void staleWriteDoesNotChangeTheTier() {
+        SkuWriteResult result = tier.save(sku(2, 20L, 100, 0, 99));
+
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(tier.findById(2).orElseThrow().getAmount()).isEqualTo(6);
+        assertThat(ids(tier.findByWarehouseId(10))).containsExactly(1L, 2L);
+    }
+
+    private static List<Long> ids(List<com.example.sku.grpc.Sku> skus) {
+        return skus.stream().map(com.example.sku.grpc.Sku::getSkuId).toList();
+    }
+
+    private static Sku sku(long skuId, Long warehouseId, long itemId, int lastUpdatedSecond, int amount) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setWarehouseId(warehouseId);
+        sku.setItemId(itemId);
+        sku.setAmount(amount);
+        sku.setCountryCode("BRA");
+        sku.setAvailabilityType(AvailabilityType.READY_TO_SHIP);
+        sku.setPriceNanos(1_500_000_000L);
+        sku.setCurrencyCode("BRL");
+        sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, lastUpdatedSecond, 0, ZoneOffset.UTC));
+        return sku;
+    }
+}
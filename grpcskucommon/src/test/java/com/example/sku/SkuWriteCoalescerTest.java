@@ -0,0 +1,241 @@
+package com.example.sku;
+
+import io.grpc.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkuWriteCoalescerTest {
+
+    private final RecordingStore store = new RecordingStore();
+    private final SkuImportPartitioner partitioner = new SkuImportPartitioner(1, 2000);
+    private SkuWriteCoalescer coalescer;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+        partitioner.close();
+    }
+
+    @Test
+    void concurrentCallsAreWrittenInOneGroup() {
+        coalescer = coalescer(Duration.ofMillis(200), 500);
+
+        CompletableFuture<SkuWriteResult> first = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 10)));
+        CompletableFuture<SkuWriteResult> second = CompletableFuture.supplyAsync(() -> coalescer.write(sku(2, 1, 20), sku(3, 1, 30)));
+
+        assertThat(first.join().rows()).isEqualTo(1);
+        assertThat(first.join().applied()).isEqualTo(1);
+        assertThat(second.join().rows()).isEqualTo(2);
+        assertThat(second.join().applied()).isEqualTo(2);
+        assertThat(store.batches).hasSize(1);
+        assertThat(store.batches.getFirst()).extracting(Sku::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void newestVersionWinsOverLaterArrival() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(200), 500);
+
+        // A envia last_updated=3 e B, chegando depois no mesmo grupo, envia last_updated=2
+        CompletableFuture<SkuWriteResult> a = CompletableFuture.supplyAsync(() -> coalescer.write(sku(7, 3, 30)));
+        arrivalGap();
+        CompletableFuture<SkuWriteResult> b = CompletableFuture.supplyAsync(() -> coalescer.write(sku(7, 2, 20), sku(8, 2, 80)));
+
+        SkuWriteResult resultA = a.get(5, TimeUnit.SECONDS);
+        SkuWriteResult resultB = b.get(5, TimeUnit.SECONDS);
+
+        assertThat(store.batches).hasSize(1);
+        assertThat(store.batches.getFirst()).extracting(Sku::getAmount).containsExactly(30, 80);
+        assertThat(resultA.applied()).isEqualTo(1);
+        assertThat(resultA.skipped()).isZero();
+        // A linha 7 de B perdeu para a de A: conta como mantida só para B
+        assertThat(resultB.rows()).isEqualTo(2);
+        assertThat(resultB.applied()).isEqualTo(1);
+        assertThat(resultB.skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void equalVersionsKeepTheLaterArrival() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(200), 500);
+
+        CompletableFuture<SkuWriteResult> a = CompletableFuture.supplyAsync(() -> coalescer.write(sku(7, 3, 30)));
+        arrivalGap();
+        CompletableFuture<SkuWriteResult> b = CompletableFuture.supplyAsync(() -> coalescer.write(sku(7, 3, 31)));
+
+        assertThat(a.get(5, TimeUnit.SECONDS).skipped()).isEqualTo(1);
+        assertThat(b.get(5, TimeUnit.SECONDS).applied()).isEqualTo(1);
+        assertThat(store.batches.getFirst()).extracting(Sku::getAmount).containsExactly(31);
+    }
+
+    @Test
+    void fullGroupIsFlushedBeforeTheWindow() {
+        coalescer = coalescer(Duration.ofSeconds(30), 2);
+
+        CompletableFuture<SkuWriteResult> first = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 1)));
+        CompletableFuture<SkuWriteResult> second = CompletableFuture.supplyAsync(() -> coalescer.write(sku(2, 1, 2)));
+
+        assertThat(CompletableFuture.allOf(first, second)).succeedsWithin(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void callGivesUpAfterTheTimeoutWithoutWriting() {
+        store.block = new CountDownLatch(1);
+        coalescer = new SkuWriteCoalescer(store, partitioner, true, Duration.ofMillis(1), 500, Duration.ofMillis(100));
+
+        // O primeiro grupo fica preso no banco; o segundo não chega a ser gravado
+        CompletableFuture<SkuWriteResult> stuck = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 1)));
+        while (store.batchCount() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThatThrownBy(() -> coalescer.write(sku(2, 1, 2)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no skus were written");
+        store.block.countDown();
+
+        assertThat(stuck).failsWithin(Duration.ofSeconds(5));
+        assertThat(store.batches).hasSize(1);
+    }
+
+    @Test
+    void storeFailureReachesEveryCallInTheGroup() {
+        store.failure = new IllegalStateException("database down");
+        coalescer = coalescer(Duration.ofMillis(200), 500);
+
+        CompletableFuture<SkuWriteResult> first = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 1)));
+        CompletableFuture<SkuWriteResult> second = CompletableFuture.supplyAsync(() -> coalescer.write(sku(2, 1, 2)));
+
+        assertThat(first).failsWithin(Duration.ofSeconds(5)).withThrowableThat().withMessageContaining("database down");
+        assertThat(second).failsWithin(Duration.ofSeconds(5)).withThrowableThat().withMessageContaining("database down");
+    }
+
+    @Test
+    void partialFailureReportsEachCallShareOfTheWrittenRows() throws InterruptedException {
+        // Duas partições de um grupo de 4 skus: [1, 2] grava e [3, 4] falha
+        SkuImportPartitioner parallel = new SkuImportPartitioner(2, 1);
+        store.failure = new IllegalStateException("deadlock");
+        store.failFromSkuId = 3;
+        coalescer = new SkuWriteCoalescer(store, parallel, true, Duration.ofMillis(200), 500, Duration.ofSeconds(30));
+        try {
+            CompletableFuture<SkuWriteResult> a = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 1)));
+            arrivalGap();
+            CompletableFuture<SkuWriteResult> b = CompletableFuture.supplyAsync(
+                    () -> coalescer.write(sku(2, 1, 2), sku(3, 1, 3), sku(4, 1, 4)));
+
+            assertThat(a).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                    .havingCause().isInstanceOfSatisfying(SkuImportPartitioner.PartialImportException.class,
+                            e -> assertThat(e.written()).isEqualTo(new SkuWriteResult(1, 1, 0, 0, 1)));
+            assertThat(b).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                    .havingCause().isInstanceOfSatisfying(SkuImportPartitioner.PartialImportException.class,
+                            e -> assertThat(e.written()).isEqualTo(new SkuWriteResult(1, 1, 0, 0, 1)));
+        } finally {
+            coalescer.close();
+            parallel.close();
+        }
+    }
+
+    @Test
+    void cancelledCallIsDroppedFromTheGroup() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(200), 500);
+        Context.CancellableContext call = Context.current().withCancellation();
+
+        CompletableFuture<SkuWriteResult> kept = CompletableFuture.supplyAsync(() -> coalescer.write(sku(1, 1, 1)));
+        CompletableFuture<SkuWriteResult> cancelled = CompletableFuture.supplyAsync(() -> {
+            Context previous = call.attach();
+            try {
+                return coalescer.write(sku(2, 1, 2));
+            } finally {
+                call.detach(previous);
+            }
+        });
+        arrivalGap();
+        call.cancel(null);
+
+        assertThat(kept.get(5, TimeUnit.SECONDS).applied()).isEqualTo(1);
+        assertThat(cancelled).failsWithin(Duration.ofSeconds(5)).withThrowableThat()
+                .withMessageContaining("no skus were written");
+        assertThat(store.batches).hasSize(1);
+        assertThat(store.batches.getFirst()).extracting(Sku::getId).containsExactly(1L);
+    }
+
+    @Test
+    void groupTotalsAreSharedInProportionToEachCallRows() {
+        assertThat(SkuWriteCoalescer.share(0, new int[]{3, 1})).containsExactly(0, 0);
+        assertThat(SkuWriteCoalescer.share(4, new int[]{3, 1})).containsExactly(3, 1);
+        assertThat(SkuWriteCoalescer.share(2, new int[]{3, 1})).containsExactly(2, 0);
+        assertThat(SkuWriteCoalescer.share(1, new int[]{1, 1, 1})).containsExactly(1, 0, 0);
+        assertThat(SkuWriteCoalescer.share(3, new int[]{0, 0})).containsExactly(0, 0);
+    }
+
+    @Test
+    void rejectsSkuWithoutId() {
+        coalescer = coalescer(Duration.ofMillis(1), 500);
+
+        assertThatThrownBy(() -> coalescer.write(new Sku()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SkuWriteCoalescer coalescer(Duration window, int maxRows) {
+        return new SkuWriteCoalescer(store, partitioner, true, window, maxRows, Duration.ofSeconds(30));
+    }
+
+    // Dá tempo da chamada anterior entrar na fila, para fixar a ordem de chegada dentro da janela
+    private static void arrivalGap() throws InterruptedException {
+        Thread.sleep(50);
+    }
+
+    private static Sku sku(long skuId, int lastUpdatedSecond, int amount) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        sku.setAmount(amount);
+        sku.setLastUpdated(OffsetDateTime.of(2025, 1, 1, 0, 0, lastUpdatedSecond, 0, ZoneOffset.UTC));
+        return sku;
+    }
+
+    /** Registra cada lote gravado; toda linha recebida conta como inserida. */
+    private static final class RecordingStore extends InMemorySkuStore {
+
+        final List<Sku[]> batches = new ArrayList<>();
+        volatile CountDownLatch block;
+        volatile RuntimeException failure;
+        // Só os lotes que chegam a este sku_id falham
+        volatile long failFromSkuId = Long.MIN_VALUE;
+
+        @Override
+        public SkuWriteResult save(Sku... skus) {
+            synchronized (batches) {
+                batches.add(skus);
+            }
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("released");
+            }
+            if (failure != null && skus[skus.length - 1].getId() >= failFromSkuId) {
+                throw failure;
+            }
+            return new SkuWriteResult(skus.length, skus.length, 0, 0, 1);
+        }
+
+        int batchCount() {
+            synchronized (batches) {
+                return batches.size();
+            }
+        }
+    }
+}